@@ -0,0 +1,82 @@
+#!/usr/bin/env bash
+# Read and write throughput of the trips API with the tuned database settings (application.properties)
+# vs driver/library defaults: a 10-connection pool, pgJDBC's prepareThreshold=5 without batch
+# rewriting, and no Hibernate JDBC batching. Run against a disposable database; the write phase
+# creates and deletes trips as the BENCH_TOKEN user (soft deletes, purged later as usual).
+# Needs the usual SPRING_DATASOURCE_* / SUPABASE_* environment, as for a normal start.
+#
+#   ./mvnw -DskipTests package
+#   BENCH_TOKEN=<access token> scripts/db-benchmark.sh [requests] [concurrency]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+REQUESTS="${1:-2000}"
+CONCURRENCY="${2:-32}"
+PORT="${BENCH_PORT:-18082}"
+BASE="http://localhost:$PORT"
+JAR="target/spring-demo-0.0.1-SNAPSHOT.jar"
+: "${BENCH_TOKEN:?set BENCH_TOKEN to an access token for the write phase}"
+
+# Rate limiting and SQL logging would dominate the numbers
+COMMON=(-Dratelimit.enabled=false -Dspring.jpa.show-sql=false -Dlogging.level.com.techup=INFO)
+DEFAULTS=(
+  -Ddb.pool.max-size=10
+  -Dspring.datasource.hikari.data-source-properties.prepareThreshold=5
+  -Dspring.datasource.hikari.data-source-properties.reWriteBatchedInserts=false
+  -Dspring.jpa.properties.hibernate.jdbc.batch_size=0
+  -Dspring.jpa.properties.hibernate.order_inserts=false
+  -Dspring.jpa.properties.hibernate.order_updates=false
+)
+
+now_ms() { date +%s%3N; }
+
+# Runs REQUESTS invocations of the given function with CONCURRENCY in parallel, prints requests/s
+throughput() {
+  local start elapsed
+  start=$(now_ms)
+  seq "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} bash -c "$1 {}"
+  elapsed=$(( $(now_ms) - start ))
+  echo $(( REQUESTS * 1000 / (elapsed > 0 ? elapsed : 1) ))
+}
+
+read_trips() {
+  local page=$(( $1 % 20 ))
+  curl -sf -o /dev/null "$BASE/api/trips?page=$page&size=20&sort=popular"
+  curl -sf -o /dev/null "$BASE/api/trips/mine?size=20" -H "Authorization: Bearer $BENCH_TOKEN"
+}
+
+write_trip() {
+  local id
+  id=$(curl -sf "$BASE/api/trips" -H "Authorization: Bearer $BENCH_TOKEN" -H 'Content-Type: application/json' \
+    -d "{\"title\":\"bench $1\",\"description\":\"db benchmark\",\"tags\":[\"bench\"],\"province\":\"Bangkok\"}" \
+    | sed -n 's/^{"id":\([0-9]*\).*/\1/p')
+  curl -sf -o /dev/null -X PUT "$BASE/api/trips/$id" -H "Authorization: Bearer $BENCH_TOKEN" -H "If-Match: *" \
+    -H 'Content-Type: application/json' -d "{\"title\":\"bench $1 (edited)\",\"tags\":[\"bench\",\"edited\"]}"
+  curl -sf -o /dev/null -X DELETE "$BASE/api/trips/$id" -H "Authorization: Bearer $BENCH_TOKEN" -H "If-Match: *"
+}
+export -f read_trips write_trip
+export BASE BENCH_TOKEN
+
+run() {
+  local name="$1" pid reads writes
+  shift
+  PORT="$PORT" java "${COMMON[@]}" "$@" -jar "$JAR" >/dev/null 2>&1 &
+  pid=$!
+  until curl -sf "$BASE/actuator/health" >/dev/null; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "server exited during startup" >&2
+      return 1
+    fi
+    sleep 0.2
+  done
+  # Warm-up so both runs measure a hot JIT and a full pool / statement cache
+  REQUESTS=200 throughput read_trips >/dev/null
+  reads=$(throughput read_trips)
+  writes=$(throughput write_trip)
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  printf '%-10s reads %6d req/s   writes %6d trips/s\n' "$name" "$reads" "$writes"
+}
+
+run defaults "${DEFAULTS[@]}"
+run tuned
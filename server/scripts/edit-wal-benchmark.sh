@@ -0,0 +1,37 @@
+#!/usr/bin/env bash
+# WAL written per trip edit: full PUT vs PATCH of a single field vs a PATCH that changes nothing.
+# Uses pg_current_wal_lsn(), so run it against a database with no other write traffic; the numbers
+# include the outbox row each real edit adds.
+#
+#   BENCH_TOKEN=<access token> DATABASE_URL=postgres://... scripts/edit-wal-benchmark.sh <trip id> [edits]
+set -euo pipefail
+
+TRIP_ID="${1:?usage: $0 <trip id owned by the BENCH_TOKEN user> [edits]}"
+EDITS="${2:-200}"
+BASE="${BENCH_BASE_URL:-http://localhost:8080}"
+: "${BENCH_TOKEN:?set BENCH_TOKEN to an access token of the trip author}"
+: "${DATABASE_URL:?set DATABASE_URL for psql}"
+
+DESCRIPTION=$(printf 'A long description that a title edit should not rewrite. %.0s' $(seq 40))
+
+lsn() { psql "$DATABASE_URL" -Atc 'SELECT pg_current_wal_lsn()'; }
+
+# measure <name> <method> <content type> <body template with %d for the edit number>
+measure() {
+  local name="$1" method="$2" type="$3" template="$4" before after bytes
+  before=$(lsn)
+  for i in $(seq "$EDITS"); do
+    # shellcheck disable=SC2059
+    curl -sf -o /dev/null -X "$method" "$BASE/api/trips/$TRIP_ID" -H "Authorization: Bearer $BENCH_TOKEN" \
+      -H "If-Match: *" -H "Content-Type: $type" -d "$(printf "$template" "$i")"
+  done
+  after=$(lsn)
+  bytes=$(psql "$DATABASE_URL" -Atc "SELECT pg_wal_lsn_diff('$after', '$before')")
+  printf '%-14s %8d WAL bytes/edit\n' "$name" $(( ${bytes%.*} / EDITS ))
+}
+
+measure "put"          PUT   application/json \
+  "{\"title\":\"wal bench %d\",\"description\":\"$DESCRIPTION\",\"tags\":[\"bench\"],\"photos\":[]}"
+measure "patch title"  PATCH application/merge-patch+json '{"title":"wal bench patched %d"}'
+# Same title as the last patch above, so every request is a no-op
+measure "patch no-op"  PATCH application/merge-patch+json "{\"title\":\"wal bench patched $EDITS\"}"
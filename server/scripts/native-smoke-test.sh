@@ -0,0 +1,54 @@
+#!/usr/bin/env bash
+# Smoke checks for the native executable (mvn -Pnative -DskipTests native:compile). They cover the
+# paths most likely to break under closed-world compilation: Jackson binding of entities and DTOs
+# (JSON, CBOR, field filters), text[] columns, validation errors, the SSE stream and actuator.
+# Needs the usual SPRING_DATASOURCE_* / SUPABASE_* environment, as for a normal start.
+#
+#   scripts/native-smoke-test.sh [path-to-binary]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+BINARY="${1:-target/spring-demo}"
+PORT="${SMOKE_PORT:-18081}"
+BASE="http://localhost:$PORT"
+FAILED=0
+
+PORT="$PORT" "$BINARY" >target/native-smoke.log 2>&1 &
+PID=$!
+trap 'kill "$PID" 2>/dev/null || true' EXIT
+
+for _ in $(seq 300); do
+  curl -sf "$BASE/actuator/health" >/dev/null && break
+  if ! kill -0 "$PID" 2>/dev/null; then
+    echo "native binary exited during startup, see target/native-smoke.log" >&2
+    exit 1
+  fi
+  sleep 0.1
+done
+
+# check <name> <expected status> <curl args...>
+check() {
+  local name="$1" expected="$2" status
+  shift 2
+  # the stream never ends by itself, so curl's --max-time exit is expected there
+  status=$(curl -s -o /dev/null -w '%{http_code}' "$@" || true)
+  if [ "$status" = "$expected" ]; then
+    printf 'ok    %s\n' "$name"
+  else
+    printf 'FAIL  %s (expected %s, got %s)\n' "$name" "$expected" "$status"
+    FAILED=1
+  fi
+}
+
+check "health"              200 "$BASE/actuator/health"
+check "list trips (json)"   200 "$BASE/api/trips?size=5"
+check "list trips (cbor)"   200 -H 'Accept: application/cbor' "$BASE/api/trips?size=5"
+check "summary projection"  200 "$BASE/api/trips?fields=summary&sort=popular"
+check "invalid sort"        400 "$BASE/api/trips?sort=nope"
+check "suggestions"         200 "$BASE/api/trips/suggestions?prefix=a"
+check "batch"               200 "$BASE/api/trips/batch?ids=1,2"
+check "unknown trip"        404 "$BASE/api/trips/999999999"
+check "login validation"    400 -H 'Content-Type: application/json' -d '{}' "$BASE/api/auth/login"
+check "sse stream"          200 --max-time 2 -H 'Accept: text/event-stream' "$BASE/api/trips/stream"
+
+exit "$FAILED"
@@ -0,0 +1,54 @@
+#!/usr/bin/env bash
+# Time-to-first-request for the standard jar vs the fast-start artifact (mvn -Pfast-start).
+# Needs the usual SPRING_DATASOURCE_* / SUPABASE_* environment, as for a normal start.
+#
+#   ./mvnw -Pfast-start -DskipTests package
+#   scripts/startup-benchmark.sh [runs]
+#
+# The jar in target/ then carries the AOT classes too, but without -Dspring.aot.enabled it starts
+# exactly like the standard build.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS="${1:-5}"
+PORT="${BENCH_PORT:-18080}"
+JAR="spring-demo-0.0.1-SNAPSHOT.jar"
+
+now_ms() { date +%s%3N; }
+
+# Starts the given command, waits for the first successful request, prints elapsed ms
+measure() {
+  local start pid elapsed
+  start=$(now_ms)
+  PORT="$PORT" "$@" >/dev/null 2>&1 &
+  pid=$!
+  until curl -sf "http://localhost:$PORT/actuator/health" >/dev/null; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "server exited before serving a request" >&2
+      return 1
+    fi
+    sleep 0.05
+  done
+  elapsed=$(( $(now_ms) - start ))
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "$elapsed"
+}
+
+report() {
+  local name="$1"; shift
+  local total=0 ms
+  for _ in $(seq "$RUNS"); do
+    ms=$(measure "$@")
+    total=$(( total + ms ))
+    printf '%-12s %6d ms\n' "$name" "$ms"
+  done
+  printf '%-12s %6d ms (mean of %d)\n\n' "$name" $(( total / RUNS )) "$RUNS"
+}
+
+report standard java -jar "target/$JAR"
+(
+  cd target/fast-start
+  report fast-start java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+    -Dspring.profiles.active=fast-start -jar "$JAR"
+)
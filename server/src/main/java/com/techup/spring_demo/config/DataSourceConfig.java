@@ -0,0 +1,43 @@
+package com.techup.spring_demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class DataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    // Hikari's default of 10 connections ignores the machine. Unless db.pool.max-size is set, the pool is
+    // sized cores * connections-per-core + spindles (HikariCP's pool-sizing rule of thumb), using the
+    // cores this container may use. Runs before the pool starts, which happens on first getConnection.
+    @Bean
+    static BeanPostProcessor hikariPoolSizer(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    int size = poolSize(environment);
+                    dataSource.setMaximumPoolSize(size);
+                    logger.info("Database pool '{}' sized to {} connections", beanName, size);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static int poolSize(Environment environment) {
+        int configured = environment.getProperty("db.pool.max-size", Integer.class, 0);
+        if (configured > 0) {
+            return configured;
+        }
+        int perCore = environment.getProperty("db.pool.connections-per-core", Integer.class, 2);
+        int spindles = environment.getProperty("db.pool.spindles", Integer.class, 1);
+        return Math.max(2, Runtime.getRuntime().availableProcessors() * perCore + spindles);
+    }
+}
@@ -0,0 +1,82 @@
+package com.techup.spring_demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.techup.spring_demo.dto.TripPageResponse;
+import com.techup.spring_demo.dto.TripResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.List;
+
+@Configuration
+public class JacksonConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(JacksonConfig.class);
+
+    public static final String TRIP_FIELDS_FILTER = "tripFields";
+
+    // TripResponse carries @JsonFilter; without a per-request filter every field is written
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer tripFieldsFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll())
+                .setFailOnUnknownId(false));
+    }
+
+    // Built from Boot's builder so CBOR/Smile share the JSON settings (dates, filters) instead of
+    // the defaults Spring MVC would create on its own
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(cborMapper(builder));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(smileMapper(builder));
+    }
+
+    // Swap the factory on the configured builder; the static Jackson2ObjectMapperBuilder.cbor()/smile()
+    // start from a blank builder and would drop the trip fields filter. Boot's builder bean is a prototype,
+    // so each converter gets its own copy to mutate.
+    static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new CBORFactory()).build();
+    }
+
+    static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new SmileFactory()).build();
+    }
+
+    // Resolve and cache the trip serializers up front so the first requests don't pay for introspection
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpSerializers(ApplicationReadyEvent event) {
+        ApplicationContext context = event.getApplicationContext();
+        List<ObjectMapper> mappers = List.of(
+                context.getBean(ObjectMapper.class),
+                context.getBean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper(),
+                context.getBean(MappingJackson2SmileHttpMessageConverter.class).getObjectMapper());
+
+        TripPageResponse sample = new TripPageResponse();
+        sample.setContent(List.of(new TripResponse()));
+        for (ObjectMapper mapper : mappers) {
+            try {
+                mapper.writerFor(TripPageResponse.class).writeValueAsBytes(sample);
+            } catch (Exception e) {
+                logger.warn("Serializer warm-up failed for {}: {}",
+                        mapper.getFactory().getFormatName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.techup.spring_demo.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+@Configuration
+public class LazyInitializationConfig {
+
+    // With spring.main.lazy-initialization (fast-start profile) a bean is only created when first used,
+    // but @Scheduled jobs and @EventListener hooks (flushes, purges, index builds) have no caller,
+    // so beans declaring them are still created eagerly
+    @Bean
+    static LazyInitializationExcludeFilter backgroundBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> hasBackgroundWork(beanType);
+    }
+
+    private static boolean hasBackgroundWork(Class<?> beanType) {
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(beanType)) {
+            if (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                    || AnnotatedElementUtils.hasAnnotation(method, EventListener.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
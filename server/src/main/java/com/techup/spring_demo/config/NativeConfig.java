@@ -0,0 +1,57 @@
+package com.techup.spring_demo.config;
+
+import com.techup.spring_demo.dto.FileUploadResult;
+import com.techup.spring_demo.dto.LoginResponse;
+import com.techup.spring_demo.dto.RegisterResponse;
+import com.techup.spring_demo.dto.TripStreamEvent;
+import com.techup.spring_demo.dto.supabase.SupabaseLoginRequest;
+import com.techup.spring_demo.dto.supabase.SupabaseLoginResponse;
+import com.techup.spring_demo.dto.supabase.SupabaseRegisterRequest;
+import com.techup.spring_demo.dto.supabase.SupabaseRegisterResponse;
+import com.techup.spring_demo.dto.supabase.SupabaseUserResponse;
+import com.techup.spring_demo.entity.type.InternedStringArrayType;
+import com.techup.spring_demo.entity.type.StringArrayType;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * GraalVM native-image hints (mvn -Pnative native:compile) for what Spring AOT can't infer on its own.
+ * Controller request/response bodies are registered by AOT; these are the types only bound through
+ * WebClient, inside Map bodies, or behind Mono/Flux return types.
+ */
+@Configuration
+@RegisterReflectionForBinding({
+        SupabaseLoginRequest.class,
+        SupabaseLoginResponse.class,
+        SupabaseRegisterRequest.class,
+        SupabaseRegisterResponse.class,
+        SupabaseUserResponse.class,
+        LoginResponse.class,
+        RegisterResponse.class,
+        FileUploadResult.class,
+        TripStreamEvent.class
+})
+@ImportRuntimeHints(NativeConfig.Hints.class)
+public class NativeConfig {
+
+    static class Hints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // text[] columns and bigint[] native query parameters are bound as String[]/Long[], which the
+            // JDBC driver looks up by class; arrays have no members to open up
+            hints.reflection().registerType(String[].class);
+            hints.reflection().registerType(Long[].class);
+            // @Type user types are instantiated by Hibernate through their no-arg constructor
+            hints.reflection().registerType(StringArrayType.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            hints.reflection().registerType(InternedStringArrayType.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            // Loaded by name in the non-default profiles
+            hints.resources().registerPattern("application-*.properties");
+            hints.resources().registerPattern("schema.sql");
+        }
+    }
+}
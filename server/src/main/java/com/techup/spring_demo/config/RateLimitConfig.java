@@ -0,0 +1,58 @@
+package com.techup.spring_demo.config;
+
+import com.techup.spring_demo.filter.RateLimitFilter;
+import com.techup.spring_demo.service.InMemoryRateLimiter;
+import com.techup.spring_demo.service.RateLimiter;
+import com.techup.spring_demo.service.SessionCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitConfig.class);
+
+    @Bean
+    @ConditionalOnMissingBean(RateLimiter.class)
+    public RateLimiter rateLimiter() {
+        return new InMemoryRateLimiter();
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimitProperties properties, RateLimiter rateLimiter,
+            SessionCache sessionCache, Environment environment) {
+        return new RateLimitFilter(properties, rateLimiter, sessionCache, maxInFlight(properties, environment));
+    }
+
+    // Same pool size DataSourceConfig gives Hikari
+    private static int maxInFlight(RateLimitProperties properties, Environment environment) {
+        int poolSize = DataSourceConfig.poolSize(environment);
+        int configured = properties.getConcurrency().getMaxInFlight();
+        if (configured < 0) {
+            throw new IllegalStateException("ratelimit.concurrency.max-in-flight must be 0 (pool size) or positive");
+        }
+        if (configured == 0) {
+            return poolSize;
+        }
+        if (configured > poolSize) {
+            logger.warn("ratelimit.concurrency.max-in-flight={} exceeds the database pool ({} connections); "
+                    + "requests past the pool queue on connections instead of being shed", configured, poolSize);
+        }
+        return configured;
+    }
+
+    // Registered inside the security chain (after CORS) instead of as a plain servlet filter
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
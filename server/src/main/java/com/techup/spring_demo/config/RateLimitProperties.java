@@ -0,0 +1,49 @@
+package com.techup.spring_demo.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "ratelimit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Only enable behind a proxy that overwrites X-Forwarded-For, otherwise clients can spoof it
+    private boolean trustForwardedFor = false;
+
+    private Rule defaultRule = new Rule(null, "/**", 120, 2.0);
+
+    // First matching rule wins; requests matching none use defaultRule
+    private List<Rule> rules = new ArrayList<>();
+
+    private Concurrency concurrency = new Concurrency();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rule {
+        private String method;
+        private String path;
+        private long capacity;
+        private double refillPerSecond;
+    }
+
+    @Data
+    public static class Concurrency {
+        private boolean enabled = true;
+        // Only routes that hold a database connection; uploads and auth wait on Supabase, and the
+        // excluded trip routes are served from memory (suggestions) or hand off to async (stream)
+        private String path = "/api/trips/**";
+        private List<String> excludePaths = new ArrayList<>(List.of("/api/trips/suggestions", "/api/trips/stream"));
+        // Requests served at once; 0 means the database pool size, so excess load is shed here instead
+        // of queueing on connections. RateLimitConfig warns when an explicit value exceeds the pool
+        private int maxInFlight = 0;
+        private long queueTimeoutMs = 50;
+    }
+}
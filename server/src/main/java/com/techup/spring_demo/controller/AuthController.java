@@ -7,12 +7,15 @@ import com.techup.spring_demo.dto.UserResponse;
 import com.techup.spring_demo.dto.user.UpdateProfileRequest;
 import com.techup.spring_demo.dto.RegisterRequest;
 import com.techup.spring_demo.dto.RegisterResponse;
+import com.techup.spring_demo.exception.BadRequestException;
+import com.techup.spring_demo.exception.UnauthorizedException;
 import com.techup.spring_demo.service.SupabaseAuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -22,63 +25,58 @@ public class AuthController {
 
     private final SupabaseAuthService supabaseAuthService;
 
+    // register/login return Mono: Spring MVC completes them asynchronously, so no request thread
+    // waits on Supabase
     @PostMapping("/register")
-    public ResponseEntity<RegisterResponse> register(@Valid @RequestBody RegisterRequest request) {
-        try {
-            SupabaseAuthService.RegisterResult result = supabaseAuthService.register(
-                    request.getEmail(),
-                    request.getPassword(),
-                    request.getDisplayName(),
-                    request.getAvatarUrl());
-
-            if (result.isSuccess()) {
-                RegisterResponse response = new RegisterResponse(
-                        result.getMessage(),
-                        result.getUserId(),
-                        result.getEmail());
-                return ResponseEntity.status(HttpStatus.CREATED).body(response);
-            } else {
-                RegisterResponse response = new RegisterResponse(
-                        result.getMessage(),
-                        null,
-                        result.getEmail());
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-            }
-
-        } catch (RuntimeException e) {
-            RegisterResponse response = new RegisterResponse(
-                    e.getMessage(),
-                    null,
-                    request.getEmail());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
+    public Mono<ResponseEntity<RegisterResponse>> register(@Valid @RequestBody RegisterRequest request) {
+        return supabaseAuthService.register(
+                request.getEmail(),
+                request.getPassword(),
+                request.getDisplayName(),
+                request.getAvatarUrl())
+                .map(result -> {
+                    if (result.isSuccess()) {
+                        RegisterResponse response = new RegisterResponse(
+                                result.getMessage(),
+                                result.getUserId(),
+                                result.getEmail());
+                        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+                    }
+                    RegisterResponse response = new RegisterResponse(
+                            result.getMessage(),
+                            null,
+                            result.getEmail());
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+                })
+                .onErrorResume(RuntimeException.class, e -> {
+                    RegisterResponse response = new RegisterResponse(
+                            e.getMessage(),
+                            null,
+                            request.getEmail());
+                    return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response));
+                });
     }
 
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
-        try {
-            SupabaseAuthService.LoginResult result = supabaseAuthService.login(
-                    request.getEmail(),
-                    request.getPassword());
-
-            if (result.isSuccess()) {
-                LoginResponse response = new LoginResponse(
-                        result.getAccessToken(),
-                        result.getRefreshToken(),
-                        new LoginResponse.UserInfo(result.getUserId(), result.getEmail()));
-                return ResponseEntity.ok(response);
-            } else {
-                LoginResponse response = new LoginResponse(
-                        null,
-                        null,
-                        new LoginResponse.UserInfo(null, result.getEmail()));
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-            }
-
-        } catch (RuntimeException e) {
-            // Let GlobalExceptionHandler handle it to return error message
-            throw e;
-        }
+    public Mono<ResponseEntity<LoginResponse>> login(@Valid @RequestBody LoginRequest request) {
+        // Errors are left to GlobalExceptionHandler to return the error message
+        return supabaseAuthService.login(
+                request.getEmail(),
+                request.getPassword())
+                .map(result -> {
+                    if (result.isSuccess()) {
+                        LoginResponse response = new LoginResponse(
+                                result.getAccessToken(),
+                                result.getRefreshToken(),
+                                new LoginResponse.UserInfo(result.getUserId(), result.getEmail()));
+                        return ResponseEntity.ok(response);
+                    }
+                    LoginResponse response = new LoginResponse(
+                            null,
+                            null,
+                            new LoginResponse.UserInfo(null, result.getEmail()));
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+                });
     }
 
     @PutMapping("/profile")
@@ -87,7 +85,7 @@ public class AuthController {
             @RequestBody UpdateProfileRequest request) {
 
         if (authorization == null || !authorization.startsWith("Bearer ")) {
-            throw new RuntimeException("Unauthorized: No token provided");
+            throw new UnauthorizedException("Unauthorized: No token provided");
         }
 
         String displayName = request.getDisplayName();
@@ -141,7 +139,7 @@ public class AuthController {
             @RequestHeader(value = "Authorization", required = false) String authorization) {
 
         if (authorization == null || !authorization.startsWith("Bearer ")) {
-            throw new RuntimeException("Unauthorized: No token provided");
+            throw new UnauthorizedException("Unauthorized: No token provided");
         }
 
         String token = authorization.substring(7);
@@ -156,7 +154,7 @@ public class AuthController {
                     result.getCreatedAt());
             return ResponseEntity.ok(response);
         } else {
-            throw new RuntimeException("Failed to get user information");
+            throw new BadRequestException("Failed to get user information");
         }
     }
 
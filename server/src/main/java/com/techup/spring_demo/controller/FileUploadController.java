@@ -1,11 +1,20 @@
 package com.techup.spring_demo.controller;
 
+import com.techup.spring_demo.dto.FileUploadResult;
+import com.techup.spring_demo.dto.UploadCompleteRequest;
+import com.techup.spring_demo.dto.UploadUrlRequest;
+import com.techup.spring_demo.dto.UploadUrlResponse;
+import com.techup.spring_demo.exception.UnauthorizedException;
+import com.techup.spring_demo.service.SupabaseAuthService;
 import com.techup.spring_demo.service.SupabaseStorageService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -14,6 +23,10 @@ import java.util.Map;
 public class FileUploadController {
 
   private final SupabaseStorageService supabaseStorageService;
+  private final SupabaseAuthService supabaseAuthService;
+
+  @Value("${supabase.storage.max-files-per-request:10}")
+  private int maxFilesPerRequest;
 
   @PostMapping("/upload")
   public ResponseEntity<Map<String, String>> upload(
@@ -30,8 +43,7 @@ public class FileUploadController {
       return ResponseEntity.badRequest().body(Map.of("error", "Only image files allowed"));
     }
     
-    long maxSize = 5 * 1024 * 1024; // 5MB
-    if (file.getSize() > maxSize) {
+    if (file.getSize() > SupabaseStorageService.MAX_FILE_SIZE) {
       return ResponseEntity.badRequest().body(Map.of("error", "File size exceeds 5MB limit"));
     }
     
@@ -40,12 +52,72 @@ public class FileUploadController {
     return ResponseEntity.ok(Map.of("url", url));
   }
 
+  // Several photos in one request: every part is validated first, then uploaded in parallel
+  @PostMapping("/uploads")
+  public ResponseEntity<?> uploadMultiple(
+      @RequestParam("files") List<MultipartFile> files,
+      @RequestHeader("Authorization") String authHeader) {
+
+    if (files.isEmpty()) {
+      return ResponseEntity.badRequest().body(Map.of("error", "No files provided"));
+    }
+    if (files.size() > maxFilesPerRequest) {
+      return ResponseEntity.badRequest().body(Map.of("error", "At most " + maxFilesPerRequest + " files per request"));
+    }
+    for (MultipartFile file : files) {
+      String name = file.getOriginalFilename() != null ? file.getOriginalFilename() : "file";
+      if (file.isEmpty()) {
+        return ResponseEntity.badRequest().body(Map.of("error", name + ": File is empty"));
+      }
+      if (!isImageFile(file.getContentType())) {
+        return ResponseEntity.badRequest().body(Map.of("error", name + ": Only image files allowed"));
+      }
+      if (file.getSize() > SupabaseStorageService.MAX_FILE_SIZE) {
+        return ResponseEntity.badRequest().body(Map.of("error", name + ": File size exceeds 5MB limit"));
+      }
+    }
+
+    String userToken = authHeader.replace("Bearer ", "");
+    List<FileUploadResult> results = supabaseStorageService.uploadFiles(files, userToken);
+    return ResponseEntity.ok(Map.of("results", results));
+  }
+
+  // Direct upload, step 1: signed URL the browser PUTs the file to (bytes skip this server)
+  @PostMapping("/upload-url")
+  public ResponseEntity<UploadUrlResponse> createUploadUrl(
+      @Valid @RequestBody UploadUrlRequest request,
+      @RequestHeader("Authorization") String authHeader) {
+
+    String uploaderId = uploaderId(authHeader);
+    String userToken = authHeader.replace("Bearer ", "");
+    return ResponseEntity.ok(supabaseStorageService.createSignedUpload(
+        request.getContentType(), request.getSize(), userToken, uploaderId));
+  }
+
+  // Direct upload, step 2: verify the caller's object arrived and meets the limits, then hand out its URL
+  @PostMapping("/complete")
+  public ResponseEntity<Map<String, String>> completeUpload(
+      @Valid @RequestBody UploadCompleteRequest request,
+      @RequestHeader(value = "Authorization", required = false) String authHeader) {
+
+    String url = supabaseStorageService.completeDirectUpload(request.getPath(), uploaderId(authHeader));
+    return ResponseEntity.ok(Map.of("url", url));
+  }
+
+  // Supabase user id of the caller; direct uploads are signed under it so only they can complete them
+  private String uploaderId(String authHeader) {
+    if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+      throw new UnauthorizedException("Unauthorized: No token provided");
+    }
+    SupabaseAuthService.UserResult user = supabaseAuthService.getCurrentUser(authHeader.substring(7));
+    if (!user.isSuccess() || user.getId() == null || !user.getId().matches("[0-9a-f-]{36}")) {
+      throw new UnauthorizedException("Invalid token");
+    }
+    return user.getId();
+  }
+
+  // Cheap pre-check on the declared type; the real type is sniffed from the bytes while uploading
   private boolean isImageFile(String contentType) {
-    return contentType != null && (
-        contentType.equals("image/jpeg") ||
-        contentType.equals("image/png") ||
-        contentType.equals("image/gif") ||
-        contentType.equals("image/webp")
-    );
+    return contentType != null && SupabaseStorageService.IMAGE_CONTENT_TYPES.contains(contentType);
   }
-}
\ No newline at end of file
+}
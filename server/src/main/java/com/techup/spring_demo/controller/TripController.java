@@ -1,17 +1,34 @@
 package com.techup.spring_demo.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.techup.spring_demo.dto.TripBatchResponse;
+import com.techup.spring_demo.dto.TripChangesResponse;
 import com.techup.spring_demo.dto.TripPageResponse;
 import com.techup.spring_demo.dto.TripRequest;
 import com.techup.spring_demo.dto.TripResponse;
+import com.techup.spring_demo.dto.TripStreamEvent;
+import com.techup.spring_demo.dto.TripSuggestionResponse;
+import com.techup.spring_demo.service.TripFieldSelection;
+import com.techup.spring_demo.service.TripPatch;
 import com.techup.spring_demo.service.TripService;
+import com.techup.spring_demo.service.TripService.SortOrder;
+import com.techup.spring_demo.service.TripStreamService;
+import com.techup.spring_demo.service.TripVersionMatch;
+import com.techup.spring_demo.service.TripSuggestionService;
 import com.techup.spring_demo.service.SupabaseAuthService;
+import com.techup.spring_demo.service.TripCountService.CountMode;
 import com.techup.spring_demo.repository.UserRepository;
 import com.techup.spring_demo.entity.User;
+import com.techup.spring_demo.exception.ApiException;
+import com.techup.spring_demo.exception.UnauthorizedException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 
@@ -22,20 +39,22 @@ import java.util.List;
 public class TripController {
 
     private final TripService tripService;
+    private final TripSuggestionService tripSuggestionService;
+    private final TripStreamService tripStreamService;
     private final SupabaseAuthService supabaseAuthService;
     private final UserRepository userRepository;
 
     // Helper method to extract user ID from token
     private Long getUserIdFromToken(String authorization) {
         if (authorization == null || !authorization.startsWith("Bearer ")) {
-            throw new RuntimeException("Unauthorized: No token provided");
+            throw new UnauthorizedException("Unauthorized: No token provided");
         }
         String token = authorization.substring(7);
 
         try {
             SupabaseAuthService.UserResult user = supabaseAuthService.getCurrentUser(token);
             if (!user.isSuccess()) {
-                throw new RuntimeException("Invalid token");
+                throw new UnauthorizedException("Invalid token");
             }
 
             // Map Supabase email to local User ID, create if doesn't exist
@@ -54,27 +73,47 @@ public class TripController {
                     });
 
             return localUser.getId();
+        } catch (ApiException e) {
+            throw e;
         } catch (Exception e) {
-            throw new RuntimeException("Authentication failed: " + e.getMessage(), e);
+            throw new UnauthorizedException("Authentication failed: " + e.getMessage());
         }
     }
 
     // Authenticated endpoints (must come before public /{id} to avoid route
     // conflict)
 
-    // GET /api/trips/mine - Get user's trips + search + tags
+    // GET /api/trips/mine - Get user's trips + search + tags (fields=summary|id,title,...)
     @GetMapping("/mine")
     public ResponseEntity<TripPageResponse> getMyTrips(
             @RequestHeader(value = "Authorization", required = false) String authorization,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String query,
-            @RequestParam(required = false) List<String> tags) {
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(required = false) String count,
+            @RequestParam(required = false) String fields) {
 
         Long userId = getUserIdFromToken(authorization);
 
         boolean hasQuery = query != null && !query.trim().isEmpty();
         boolean hasTags = tags != null && !tags.isEmpty();
+        CountMode countMode = CountMode.from(count);
+        TripFieldSelection selection = TripFieldSelection.parse(fields);
+
+        // Sparse fields without description/author are read as a column projection
+        if (selection.isProjectable()) {
+            TripPageResponse result = tripService.getTripProjections(
+                    userId,
+                    hasQuery ? query.trim() : null,
+                    hasTags ? tags : null,
+                    page,
+                    size,
+                    SortOrder.LATEST,
+                    countMode,
+                    selection.coverOnly());
+            return ResponseEntity.ok(result);
+        }
 
         if (hasQuery || hasTags) {
             TripPageResponse result = tripService.searchMyTrips(
@@ -82,27 +121,60 @@ public class TripController {
                     hasQuery ? query.trim() : null,
                     hasTags ? tags : null,
                     page,
-                    size);
+                    size,
+                    countMode);
 
             return ResponseEntity.ok(result);
         }
 
-        TripPageResponse result = tripService.getTripsByAuthor(userId, page, size);
+        TripPageResponse result = tripService.getTripsByAuthor(userId, page, size, countMode);
         return ResponseEntity.ok(result);
     }
 
+    // GET /api/trips/mine/changes?since=<syncToken> - Trips created/updated/deleted since the last sync
+    @GetMapping("/mine/changes")
+    public ResponseEntity<TripChangesResponse> getMyTripChanges(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit) {
+
+        Long userId = getUserIdFromToken(authorization);
+        return ResponseEntity.ok(tripService.getMyTripChanges(userId, since, limit));
+    }
+
     // Public API endpoints
 
     // GET /api/trips - Get all trips with pagination + search + tags
+    // (sort=latest|popular|trending, fields=summary|id,title,...)
     @GetMapping
     public ResponseEntity<TripPageResponse> getAllTrips(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String query,
-            @RequestParam(required = false) List<String> tags) {
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String count,
+            @RequestParam(required = false) String fields) {
 
         boolean hasQuery = query != null && !query.trim().isEmpty();
         boolean hasTags = tags != null && !tags.isEmpty();
+        SortOrder sortOrder = SortOrder.from(sort);
+        CountMode countMode = CountMode.from(count);
+        TripFieldSelection selection = TripFieldSelection.parse(fields);
+
+        // Sparse fields without description/author are read as a column projection
+        if (selection.isProjectable() && sortOrder != SortOrder.TRENDING) {
+            TripPageResponse result = tripService.getTripProjections(
+                    null,
+                    hasQuery ? query.trim() : null,
+                    hasTags ? tags : null,
+                    page,
+                    size,
+                    sortOrder,
+                    countMode,
+                    selection.coverOnly());
+            return ResponseEntity.ok(result);
+        }
 
         // ✅ Search by keyword + tags
         if (hasQuery || hasTags) {
@@ -110,20 +182,46 @@ public class TripController {
                     hasQuery ? query.trim() : null,
                     hasTags ? tags : null,
                     page,
-                    size);
+                    size,
+                    sortOrder,
+                    countMode);
             return ResponseEntity.ok(result);
         }
 
         // ✅ Default: return all trips
-        TripPageResponse result = tripService.getAllTrips(page, size);
+        TripPageResponse result = tripService.getAllTrips(page, size, sortOrder, countMode);
         return ResponseEntity.ok(result);
     }
 
-    // GET /api/trips/{id} - Get trip by ID (public)
+    // GET /api/trips/suggestions - Title and tag completions for a search prefix
+    @GetMapping("/suggestions")
+    public ResponseEntity<TripSuggestionResponse> getSuggestions(
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(required = false) Integer limit) {
+
+        return ResponseEntity.ok(tripSuggestionService.suggest(prefix, limit));
+    }
+
+    // GET /api/trips/stream?tags=beach&provinces=Phuket - Live created/updated/deleted trips (SSE)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<TripStreamEvent>> streamTrips(
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(required = false) List<String> provinces) {
+
+        return tripStreamService.subscribe(tags, provinces);
+    }
+
+    // GET /api/trips/batch?ids=1,2,3 - Get several trips in one request (public)
+    @GetMapping("/batch")
+    public ResponseEntity<TripBatchResponse> getTripsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(tripService.getTripsByIds(ids));
+    }
+
+    // GET /api/trips/{id} - Get trip by ID (public); ETag is the version to send back as If-Match
     @GetMapping("/{id}")
     public ResponseEntity<TripResponse> getTripById(@PathVariable Long id) {
         TripResponse trip = tripService.getTripById(id);
-        return ResponseEntity.ok(trip);
+        return ResponseEntity.ok().eTag(TripVersionMatch.etag(trip.getVersion())).body(trip);
     }
 
     // POST /api/trips - Create new trip
@@ -134,29 +232,45 @@ public class TripController {
 
         Long userId = getUserIdFromToken(authorization);
         TripResponse trip = tripService.createTrip(request, userId);
-        return ResponseEntity.status(HttpStatus.CREATED).body(trip);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(TripVersionMatch.etag(trip.getVersion())).body(trip);
     }
 
-    // PUT /api/trips/{id} - Update trip
+    // PUT /api/trips/{id} - Update trip (optional If-Match: "<version>" turns a stale edit into 409)
     @PutMapping("/{id}")
     public ResponseEntity<TripResponse> updateTrip(
             @PathVariable Long id,
             @Valid @RequestBody TripRequest request,
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
 
         Long userId = getUserIdFromToken(authorization);
-        TripResponse trip = tripService.updateTrip(id, request, userId);
-        return ResponseEntity.ok(trip);
+        TripResponse trip = tripService.updateTrip(id, request, userId, TripVersionMatch.parse(ifMatch));
+        return ResponseEntity.ok().eTag(TripVersionMatch.etag(trip.getVersion())).body(trip);
     }
 
-    // DELETE /api/trips/{id} - Delete trip
+    // PATCH /api/trips/{id} - Partial update (JSON merge patch: send only the fields to change, null clears;
+    // If-Match as for PUT)
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<TripResponse> patchTrip(
+            @PathVariable Long id,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+
+        Long userId = getUserIdFromToken(authorization);
+        TripResponse trip = tripService.patchTrip(id, TripPatch.parse(patch), userId, TripVersionMatch.parse(ifMatch));
+        return ResponseEntity.ok().eTag(TripVersionMatch.etag(trip.getVersion())).body(trip);
+    }
+
+    // DELETE /api/trips/{id} - Delete trip (If-Match as for PUT)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTrip(
             @PathVariable Long id,
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
 
         Long userId = getUserIdFromToken(authorization);
-        tripService.deleteTrip(id, userId);
+        tripService.deleteTrip(id, userId, TripVersionMatch.parse(ifMatch));
         return ResponseEntity.noContent().build();
     }
 }
@@ -0,0 +1,36 @@
+package com.techup.spring_demo.controller;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.techup.spring_demo.config.JacksonConfig;
+import com.techup.spring_demo.service.TripFieldSelection;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+// Applies ?fields= to TripResponse objects written by TripController
+@ControllerAdvice(assignableTypes = TripController.class)
+public class TripFieldsResponseAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+            MethodParameter returnType, ServerHttpRequest request, ServerHttpResponse response) {
+
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        TripFieldSelection selection = TripFieldSelection.parse(
+                servletRequest.getServletRequest().getParameter("fields"));
+        if (selection.isAll()) {
+            return;
+        }
+        bodyContainer.setFilters(new SimpleFilterProvider().addFilter(
+                JacksonConfig.TRIP_FIELDS_FILTER,
+                SimpleBeanPropertyFilter.filterOutAllExcept(selection.fields())));
+    }
+}
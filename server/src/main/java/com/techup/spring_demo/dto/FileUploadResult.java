@@ -0,0 +1,15 @@
+package com.techup.spring_demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One entry per part of POST /api/files/uploads; exactly one of url and error is set
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileUploadResult {
+    private String fileName;
+    private String url;
+    private String error;
+}
@@ -0,0 +1,17 @@
+package com.techup.spring_demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TripBatchResponse {
+    // In the order the ids were requested
+    private List<TripResponse> trips = new ArrayList<>();
+    private List<Long> missingIds = new ArrayList<>();
+}
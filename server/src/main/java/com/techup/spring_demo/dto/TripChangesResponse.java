@@ -0,0 +1,22 @@
+package com.techup.spring_demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TripChangesResponse {
+    // Created or updated since the token, oldest change first
+    private List<TripResponse> updated = new ArrayList<>();
+    private List<Long> deletedIds = new ArrayList<>();
+    // Pass back as ?since= on the next call
+    private String syncToken;
+    private boolean hasMore;
+    // The token is older than the tombstone retention; reload /mine and continue from syncToken
+    private boolean resetRequired;
+}
@@ -17,5 +17,7 @@ public class TripPageResponse {
     private int totalPages;
     private boolean hasNext;
     private boolean hasPrevious;
+    // EXACT, CACHED or ESTIMATE - tells the client whether totalElements is approximate
+    private String countMode;
 }
 
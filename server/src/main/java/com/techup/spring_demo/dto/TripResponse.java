@@ -1,5 +1,7 @@
 package com.techup.spring_demo.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.techup.spring_demo.config.JacksonConfig;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,6 +13,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(JacksonConfig.TRIP_FIELDS_FILTER)
 public class TripResponse {
     
     private Long id;
@@ -23,7 +26,10 @@ public class TripResponse {
     private String province;
     private Long authorId;
     private String authorName;
+    private Long viewCount;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Send back as If-Match on PUT/PATCH/DELETE
+    private Long version;
 }
 
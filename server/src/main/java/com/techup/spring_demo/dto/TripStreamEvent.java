@@ -0,0 +1,25 @@
+package com.techup.spring_demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Payload of GET /api/trips/stream; fetch /api/trips/batch for the full trip
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TripStreamEvent {
+    // CREATED, UPDATED or DELETED
+    private String type;
+    private Long id;
+    private String title;
+    private String coverPhoto;
+    private List<String> tags = new ArrayList<>();
+    private String province;
+    private Long authorId;
+    private LocalDateTime createdAt;
+}
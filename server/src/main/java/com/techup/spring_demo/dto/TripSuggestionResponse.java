@@ -0,0 +1,16 @@
+package com.techup.spring_demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TripSuggestionResponse {
+    private List<String> titles = new ArrayList<>();
+    private List<String> tags = new ArrayList<>();
+}
@@ -0,0 +1,11 @@
+package com.techup.spring_demo.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class UploadCompleteRequest {
+
+    @NotBlank(message = "Path is required")
+    private String path;
+}
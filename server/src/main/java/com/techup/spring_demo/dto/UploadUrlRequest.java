@@ -0,0 +1,18 @@
+package com.techup.spring_demo.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class UploadUrlRequest {
+
+    @NotBlank(message = "Content type is required")
+    private String contentType;
+
+    // Declared by the client, checked again against the stored object on completion
+    @NotNull(message = "Size is required")
+    @Positive(message = "Size must be positive")
+    private Long size;
+}
@@ -0,0 +1,17 @@
+package com.techup.spring_demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadUrlResponse {
+    // Pass back to POST /api/files/complete once the PUT to uploadUrl succeeded
+    private String path;
+    // PUT the file body here with its Content-Type; no Authorization header needed
+    private String uploadUrl;
+    // Usable in a trip once the upload is completed
+    private String publicUrl;
+}
@@ -0,0 +1,25 @@
+package com.techup.spring_demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Last time an upload handed out this content-addressed URL; TripPurgeService won't delete a photo
+// that was handed out recently, even if no trip references it yet
+@Entity
+@Table(name = "photo_uploads")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PhotoUpload {
+
+    @Id
+    @Column(columnDefinition = "TEXT")
+    private String url;
+
+    @Column(name = "uploaded_at", nullable = false)
+    private LocalDateTime uploadedAt;
+}
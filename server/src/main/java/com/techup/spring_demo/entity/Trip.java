@@ -1,19 +1,31 @@
 package com.techup.spring_demo.entity;
 
+import com.techup.spring_demo.entity.type.InternedStringArrayType;
+import com.techup.spring_demo.entity.type.StringArrayType;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.Type;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+// Read indexes are partial (WHERE deleted_at IS NULL), so they live in schema.sql
 @Table(name = "trips")
-@Data
+// Soft-deleted rows are invisible to every entity query; native queries filter deleted_at themselves
+@SQLRestriction("deleted_at IS NULL")
+// UPDATEs list only the changed columns, so editing a title doesn't rewrite the description and arrays
+@DynamicUpdate
+// Identity is the id alone: equals/hashCode never walk the arrays or touch the lazy author
+@Getter
+@Setter
+@ToString(exclude = "author")
 @NoArgsConstructor
 @AllArgsConstructor
 public class Trip {
@@ -28,13 +40,14 @@ public class Trip {
     @Column(columnDefinition = "TEXT")
     private String description;
     
+    // Unmodifiable lists; assign a new list to change them (see the setters below)
     @Column(columnDefinition = "text[]")
-    @JdbcTypeCode(SqlTypes.ARRAY)
-    private List<String> photos = new ArrayList<>();
+    @Type(StringArrayType.class)
+    private List<String> photos = List.of();
     
     @Column(columnDefinition = "text[]")
-    @JdbcTypeCode(SqlTypes.ARRAY)
-    private List<String> tags = new ArrayList<>();
+    @Type(InternedStringArrayType.class)
+    private List<String> tags = List.of();
     
     private Double latitude;
     
@@ -50,12 +63,27 @@ public class Trip {
     @JoinColumn(name = "author_id", insertable = false, updatable = false)
     private User author;
     
+    // Written only by TripEngagementService's batched flush, never by entity saves
+    @Column(name = "view_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint not null default 0")
+    private Long viewCount = 0L;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Optimistic lock: bumped by every write, checked by entity saves and TripRepository's conditional writes.
+    // Clients echo it in If-Match to turn a stale edit into 409 instead of overwriting someone else's
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint not null default 0")
+    private Long version;
+    
+    // Set by deleteTrip; TripPurgeService hard-deletes the row and its photos later
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -66,5 +94,30 @@ public class Trip {
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
+    
+    public void setPhotos(List<String> photos) {
+        this.photos = StringArrayType.immutableCopy(photos);
+    }
+    
+    public void setTags(List<String> tags) {
+        this.tags = InternedStringArrayType.internedCopy(tags);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Trip other)) {
+            return false;
+        }
+        return id != null && id.equals(other.getId());
+    }
+    
+    // Constant so a trip keeps its hash bucket when persisting assigns the id
+    @Override
+    public int hashCode() {
+        return Trip.class.hashCode();
+    }
 }
 
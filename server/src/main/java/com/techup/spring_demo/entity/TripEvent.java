@@ -0,0 +1,93 @@
+package com.techup.spring_demo.entity;
+
+import com.techup.spring_demo.entity.type.InternedStringArrayType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Outbox row written in the same transaction as the trip change it describes
+@Entity
+@Table(name = "trip_events", indexes = {
+        @Index(name = "idx_trip_events_created_at", columnList = "created_at"),
+        // Dispatcher cursor order
+        @Index(name = "idx_trip_events_tx_id", columnList = "tx_id, id"),
+        // Tombstone lookups for the change feed
+        @Index(name = "idx_trip_events_author_created", columnList = "author_id, created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TripEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+
+    @Column(name = "trip_id", nullable = false)
+    private Long tripId;
+
+    @Column(name = "author_id")
+    private Long authorId;
+
+    // Snapshot of the trip after the change, so subscribers don't have to read it back
+    private String title;
+
+    @Column(columnDefinition = "text[]")
+    // Qualified: Type here would be the nested event enum
+    @org.hibernate.annotations.Type(InternedStringArrayType.class)
+    private List<String> tags = List.of();
+
+    private String province;
+
+    // First photo, enough for a live feed card
+    @Column(name = "cover_photo", columnDefinition = "TEXT")
+    private String coverPhoto;
+
+    @Column(name = "view_count")
+    private Long viewCount;
+
+    @Column(name = "trip_created_at")
+    private LocalDateTime tripCreatedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // 64-bit id of the inserting transaction, filled in by the database. Every transaction still
+    // running has an id at or above the snapshot xmin, which is what lets TripEventDispatcher tell
+    // which events can no longer be joined by earlier ones
+    @Column(name = "tx_id", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint not null default pg_current_xact_id()::text::bigint")
+    private Long txId;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public static TripEvent of(Type type, Trip trip) {
+        TripEvent event = new TripEvent();
+        event.setType(type);
+        event.setTripId(trip.getId());
+        event.setAuthorId(trip.getAuthorId());
+        event.setTitle(trip.getTitle());
+        // Trip tags are already an unmodifiable interned list, safe to share
+        event.setTags(trip.getTags());
+        event.setProvince(trip.getProvince());
+        event.setCoverPhoto(trip.getPhotos() != null && !trip.getPhotos().isEmpty() ? trip.getPhotos().get(0) : null);
+        event.setViewCount(trip.getViewCount());
+        event.setTripCreatedAt(trip.getCreatedAt());
+        return event;
+    }
+}
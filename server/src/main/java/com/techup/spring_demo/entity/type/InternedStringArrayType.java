@@ -0,0 +1,35 @@
+package com.techup.spring_demo.entity.type;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link StringArrayType} for low-cardinality values such as tags: every loaded or assigned element is
+ * replaced by one shared instance, so a page of trips tagged "beach" holds a single "beach" string and
+ * the in-memory indexes built from them don't keep thousands of copies.
+ */
+public class InternedStringArrayType extends StringArrayType {
+
+    // Bounded; cleared when full rather than evicting, which only costs some duplicate strings for a while
+    private static final int MAX_ENTRIES = 20_000;
+    private static final Map<String, String> POOL = new ConcurrentHashMap<>();
+
+    @Override
+    protected String element(String value) {
+        return intern(value);
+    }
+
+    public static List<String> internedCopy(Collection<String> values) {
+        return copy(values, InternedStringArrayType::intern);
+    }
+
+    static String intern(String value) {
+        if (POOL.size() >= MAX_ENTRIES) {
+            POOL.clear();
+        }
+        String existing = POOL.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+}
@@ -0,0 +1,123 @@
+package com.techup.spring_demo.entity.type;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Maps a {@code text[]} column to an unmodifiable {@code List<String>}. Because values can't change in
+ * place, Hibernate keeps the loaded list itself as the dirty-checking snapshot instead of a deep copy,
+ * and an untouched column costs one reference comparison per flush. Changing the column means setting
+ * a new list ({@link #immutableCopy}). NULL and empty arrays compare equal, and NULL elements are
+ * dropped, so a NULL column loaded as an empty list isn't rewritten as '{}' on the next flush.
+ */
+public class StringArrayType implements UserType<List<String>> {
+
+    @Override
+    public int getSqlType() {
+        return Types.ARRAY;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Class<List<String>> returnedClass() {
+        return (Class<List<String>>) (Class<?>) List.class;
+    }
+
+    @Override
+    public boolean equals(List<String> x, List<String> y) {
+        if (x == y) {
+            return true;
+        }
+        return (x == null ? List.of() : x).equals(y == null ? List.of() : y);
+    }
+
+    @Override
+    public int hashCode(List<String> x) {
+        return x == null ? List.of().hashCode() : x.hashCode();
+    }
+
+    @Override
+    public List<String> nullSafeGet(ResultSet rs, int position, SharedSessionContractImplementor session,
+                                    Object owner) throws SQLException {
+        Array array = rs.getArray(position);
+        if (array == null) {
+            return List.of();
+        }
+        try {
+            return copy(Arrays.asList((Object[]) array.getArray()), this::element);
+        } finally {
+            array.free();
+        }
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, List<String> value, int index,
+                            SharedSessionContractImplementor session) throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.ARRAY);
+            return;
+        }
+        st.setArray(index, st.getConnection().createArrayOf("text", value.toArray(new String[0])));
+    }
+
+    @Override
+    public List<String> deepCopy(List<String> value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(List<String> value) {
+        return (Serializable) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> assemble(Serializable cached, Object owner) {
+        return (List<String>) cached;
+    }
+
+    @Override
+    public List<String> replace(List<String> detached, List<String> managed, Object owner) {
+        return detached;
+    }
+
+    // Hook for subclasses to canonicalize elements read from the database
+    protected String element(String value) {
+        return value;
+    }
+
+    // Unmodifiable, null-free copy for entity setters
+    public static List<String> immutableCopy(Collection<String> values) {
+        return copy(values, UnaryOperator.identity());
+    }
+
+    static List<String> copy(Collection<?> values, UnaryOperator<String> element) {
+        if (values == null || values.isEmpty()) {
+            return List.of();
+        }
+        String[] elements = new String[values.size()];
+        int size = 0;
+        for (Object value : values) {
+            if (value != null) {
+                elements[size++] = element.apply(value.toString());
+            }
+        }
+        return List.of(size == elements.length ? elements : Arrays.copyOf(elements, size));
+    }
+}
@@ -0,0 +1,36 @@
+package com.techup.spring_demo.event;
+
+import com.techup.spring_demo.entity.TripEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// In-process view of a trip_events row, handed to every TripEventListener
+public record TripChanged(
+        long eventId,
+        TripEvent.Type type,
+        Long tripId,
+        Long authorId,
+        String title,
+        List<String> tags,
+        String province,
+        String coverPhoto,
+        long viewCount,
+        LocalDateTime tripCreatedAt,
+        LocalDateTime occurredAt) {
+
+    public static TripChanged from(TripEvent event) {
+        return new TripChanged(
+                event.getId(),
+                event.getType(),
+                event.getTripId(),
+                event.getAuthorId(),
+                event.getTitle(),
+                event.getTags() != null ? List.copyOf(event.getTags()) : List.of(),
+                event.getProvince(),
+                event.getCoverPhoto(),
+                event.getViewCount() != null ? event.getViewCount() : 0,
+                event.getTripCreatedAt(),
+                event.getCreatedAt());
+    }
+}
@@ -0,0 +1,164 @@
+package com.techup.spring_demo.event;
+
+import com.techup.spring_demo.entity.TripEvent;
+import com.techup.spring_demo.repository.TripEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers outbox rows from {@code trip_events} to in-process {@link TripEventListener}s.
+ *
+ * <p>Subscribers are per-instance in-memory structures, so every instance needs every event: each
+ * dispatcher keeps its own cursor instead of marking rows processed, and rows are purged after a
+ * retention window. Identity ids are allocated before commit, so an id cursor could step past an
+ * event whose transaction commits late. The cursor is therefore (transaction id, event id), and an
+ * event is only read once every transaction at or below its own has finished (it is below the
+ * snapshot xmin); anything that commits later sorts after the cursor. The cursor starts at the
+ * current snapshot xmin, because subscribers build their state from {@code trips} on startup;
+ * replaying a few events that state already reflects is harmless, as every event is a full snapshot.
+ *
+ * <p>An event that keeps failing is parked after {@code max-attempts} so the ones behind it still
+ * flow. Parked events are retried on every poll until they succeed or a newer event for the same
+ * trip is delivered, which supersedes them.
+ */
+@Service
+public class TripEventDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TripEventDispatcher.class);
+
+    private final TripEventRepository tripEventRepository;
+    private final List<TripEventListener> listeners;
+
+    private final Counter delivered;
+    private final Counter failed;
+    private final AtomicLong lagMillis = new AtomicLong();
+    // Latest undeliverable event per trip; only touched inside dispatch(). Its size is mirrored for the
+    // gauge, which must not wait on the lock a whole batch holds
+    private final Map<Long, TripChanged> parked = new LinkedHashMap<>();
+    private final AtomicInteger parkedCount = new AtomicInteger();
+
+    @Value("${trips.events.batch-size:200}")
+    private int batchSize;
+
+    @Value("${trips.events.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${trips.events.retention-days:7}")
+    private int retentionDays;
+
+    private volatile long cursorTxId = -1;
+    private long cursorId;
+    private long failingEventId;
+    private int failingAttempts;
+
+    public TripEventDispatcher(TripEventRepository tripEventRepository, List<TripEventListener> listeners,
+            MeterRegistry meterRegistry) {
+        this.tripEventRepository = tripEventRepository;
+        this.listeners = listeners;
+        this.delivered = meterRegistry.counter("trips.events.delivered");
+        this.failed = meterRegistry.counter("trips.events.failed");
+        meterRegistry.gauge("trips.events.lag", lagMillis, lag -> lag.get() / 1000.0);
+        meterRegistry.gauge("trips.events.cursor", this, dispatcher -> dispatcher.cursorTxId);
+        meterRegistry.gauge("trips.events.parked", parkedCount);
+    }
+
+    @Scheduled(fixedDelayString = "${trips.events.poll-interval-ms:500}")
+    public synchronized void dispatch() {
+        // Positioned on the first poll rather than at bean creation, so startup never waits on the database
+        if (cursorTxId < 0) {
+            cursorTxId = tripEventRepository.findSnapshotXmin();
+            cursorId = 0;
+            logger.info("Trip event dispatcher starting at transaction {}", cursorTxId);
+        }
+        retryParked();
+
+        List<TripEvent> batch = tripEventRepository.findFinishedAfter(cursorTxId, cursorId, batchSize);
+        if (batch.isEmpty()) {
+            lagMillis.set(0);
+            return;
+        }
+        lagMillis.set(Duration.between(batch.get(0).getCreatedAt(), LocalDateTime.now()).toMillis());
+
+        for (TripEvent event : batch) {
+            TripChanged changed = TripChanged.from(event);
+            if (!deliver(changed)) {
+                // Stop here so later events for the same trip are never applied before this one
+                return;
+            }
+            cursorTxId = event.getTxId();
+            cursorId = event.getId();
+        }
+    }
+
+    // False means "retry this event on the next poll"; true once delivered or parked
+    private boolean deliver(TripChanged event) {
+        try {
+            notifyListeners(event);
+            failingAttempts = 0;
+            // A newer snapshot of the trip made it through, so the parked one is obsolete
+            if (parked.remove(event.tripId()) != null) {
+                parkedCount.set(parked.size());
+            }
+            delivered.increment();
+            return true;
+        } catch (RuntimeException e) {
+            failed.increment();
+            failingAttempts = failingEventId == event.eventId() ? failingAttempts + 1 : 1;
+            failingEventId = event.eventId();
+
+            if (failingAttempts >= maxAttempts) {
+                logger.error("Parking trip event {} ({} for trip {}) after {} attempts",
+                        event.eventId(), event.type(), event.tripId(), failingAttempts, e);
+                failingAttempts = 0;
+                parked.put(event.tripId(), event);
+                parkedCount.set(parked.size());
+                return true;
+            }
+            logger.warn("Trip event {} failed (attempt {}), will retry: {}",
+                    event.eventId(), failingAttempts, e.getMessage());
+            return false;
+        }
+    }
+
+    private void retryParked() {
+        Iterator<TripChanged> iterator = parked.values().iterator();
+        while (iterator.hasNext()) {
+            TripChanged event = iterator.next();
+            try {
+                notifyListeners(event);
+                iterator.remove();
+                parkedCount.set(parked.size());
+                delivered.increment();
+                logger.info("Parked trip event {} delivered", event.eventId());
+            } catch (RuntimeException e) {
+                failed.increment();
+            }
+        }
+    }
+
+    private void notifyListeners(TripChanged event) {
+        for (TripEventListener listener : listeners) {
+            listener.onTripChanged(event);
+        }
+    }
+
+    @Scheduled(cron = "${trips.events.purge-cron:0 30 3 * * *}")
+    public void purgeDeliveredEvents() {
+        int deleted = tripEventRepository.deleteOlderThan(LocalDateTime.now().minusDays(retentionDays));
+        logger.info("Purged {} trip events older than {} days", deleted, retentionDays);
+    }
+}
@@ -0,0 +1,10 @@
+package com.techup.spring_demo.event;
+
+/**
+ * Subscriber for committed trip changes. Delivery is at-least-once and in event order (so per trip
+ * in order), which means implementations must tolerate seeing the same event twice.
+ */
+public interface TripEventListener {
+
+    void onTripChanged(TripChanged event);
+}
@@ -0,0 +1,21 @@
+package com.techup.spring_demo.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Expected, client-caused failure carrying its HTTP status. Stack traces are disabled because these
+ * are thrown on hot request paths (bad ids, expired tokens) and the trace is never logged.
+ */
+public class ApiException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public ApiException(HttpStatus status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,13 @@
+package com.techup.spring_demo.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ConflictException extends ApiException {
+
+    public static final ConflictException TRIP_MODIFIED =
+            new ConflictException("Trip was changed by another request; reload it and try again");
+
+    public ConflictException(String message) {
+        super(HttpStatus.CONFLICT, message);
+    }
+}
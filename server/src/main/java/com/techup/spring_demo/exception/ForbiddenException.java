@@ -0,0 +1,10 @@
+package com.techup.spring_demo.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ForbiddenException extends ApiException {
+
+    public ForbiddenException(String message) {
+        super(HttpStatus.FORBIDDEN, message);
+    }
+}
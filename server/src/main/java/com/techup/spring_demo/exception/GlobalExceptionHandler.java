@@ -1,11 +1,13 @@
 package com.techup.spring_demo.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -25,27 +27,32 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
     }
 
-    @ExceptionHandler(RuntimeException.class)
-    public ResponseEntity<Map<String, String>> handleRuntimeException(RuntimeException ex) {
+    @ExceptionHandler(ApiException.class)
+    public ResponseEntity<Map<String, String>> handleApiException(ApiException ex) {
         Map<String, String> error = new HashMap<>();
         error.put("message", ex.getMessage());
+        return ResponseEntity.status(ex.getStatus()).body(error);
+    }
 
-        String message = ex.getMessage();
-
-        // Check if it's an authentication error
-        if (message != null && (message.contains("Invalid email or password") ||
-                message.contains("Login failed") ||
-                message.contains("Unauthorized") ||
-                message.contains("Invalid token"))) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
-        }
+    // Upload/storage failures already carry their status (e.g. 502 from Supabase)
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, String>> handleResponseStatusException(ResponseStatusException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", ex.getReason());
+        return ResponseEntity.status(ex.getStatusCode()).body(error);
+    }
 
-        // Check if it's a permission/authorization error
-        if (message != null && (message.contains("permission") ||
-                message.contains("don't have permission"))) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
-        }
+    // A versioned entity save lost the race to a concurrent write (Trip's @Version check at flush)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return handleApiException(ConflictException.TRIP_MODIFIED);
+    }
 
+    // Fallback for untyped exceptions (e.g. from libraries); application code throws ApiException
+    @ExceptionHandler(RuntimeException.class)
+    public ResponseEntity<Map<String, String>> handleRuntimeException(RuntimeException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", ex.getMessage());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 }
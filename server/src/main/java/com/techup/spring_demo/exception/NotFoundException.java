@@ -0,0 +1,13 @@
+package com.techup.spring_demo.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class NotFoundException extends ApiException {
+
+    // Stackless and immutable, so the hottest 404 can be a shared instance
+    public static final NotFoundException TRIP_NOT_FOUND = new NotFoundException("Trip not found");
+
+    public NotFoundException(String message) {
+        super(HttpStatus.NOT_FOUND, message);
+    }
+}
@@ -0,0 +1,143 @@
+package com.techup.spring_demo.filter;
+
+import com.techup.spring_demo.config.RateLimitProperties;
+import com.techup.spring_demo.service.RateLimiter;
+import com.techup.spring_demo.service.SessionCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Admission control: per-route token buckets (per IP and per signed-in user), then an in-flight cap on the
+// database-bound routes
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RateLimitProperties properties;
+    private final RateLimiter rateLimiter;
+    private final SessionCache sessionCache;
+    private final Semaphore inFlight;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitFilter(RateLimitProperties properties, RateLimiter rateLimiter, SessionCache sessionCache,
+            int maxInFlight) {
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+        this.sessionCache = sessionCache;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || "OPTIONS".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String path = request.getRequestURI();
+        RateLimitProperties.Rule rule = resolveRule(request.getMethod(), path);
+        String route = (rule.getMethod() != null ? rule.getMethod() : "*") + " " + rule.getPath();
+
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(route + "|ip:" + clientIp(request), rule);
+        if (decision.allowed()) {
+            String userId = userId(request);
+            if (userId != null) {
+                decision = rateLimiter.tryAcquire(route + "|user:" + userId, rule);
+            }
+        }
+        if (!decision.allowed()) {
+            logger.debug("Rate limited {} {} from {}", request.getMethod(), path, clientIp(request));
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, "Too many requests",
+                    Math.max(1, decision.retryAfterMillis() / 1000));
+            return;
+        }
+
+        RateLimitProperties.Concurrency concurrency = properties.getConcurrency();
+        if (!concurrency.isEnabled() || !isDatabaseBound(concurrency, path)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        boolean acquired;
+        try {
+            acquired = inFlight.tryAcquire(concurrency.getQueueTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "Server is busy, please retry", 1);
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private boolean isDatabaseBound(RateLimitProperties.Concurrency concurrency, String path) {
+        if (!pathMatcher.match(concurrency.getPath(), path)) {
+            return false;
+        }
+        for (String excluded : concurrency.getExcludePaths()) {
+            if (pathMatcher.match(excluded, path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private RateLimitProperties.Rule resolveRule(String method, String path) {
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            boolean methodMatches = rule.getMethod() == null || rule.getMethod().equalsIgnoreCase(method);
+            if (methodMatches && pathMatcher.match(rule.getPath(), path)) {
+                return rule;
+            }
+        }
+        return properties.getDefaultRule();
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (properties.isTrustForwardedFor()) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma > 0 ? forwarded.substring(0, comma) : forwarded).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    // Only a token Supabase already accepted names a user; any other bearer (new, expired or made up)
+    // gets no bucket of its own, so rotating fake tokens can't escape the per-IP limit
+    private String userId(HttpServletRequest request) {
+        String authorization = request.getHeader("Authorization");
+        if (authorization == null || !authorization.startsWith("Bearer ") || authorization.length() <= 7) {
+            return null;
+        }
+        return sessionCache.peekUserId(authorization.substring(7));
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message, long retryAfterSeconds)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"" + message + "\"}");
+    }
+}
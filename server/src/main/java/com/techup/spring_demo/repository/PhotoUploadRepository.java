@@ -0,0 +1,31 @@
+package com.techup.spring_demo.repository;
+
+import com.techup.spring_demo.entity.PhotoUpload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PhotoUploadRepository extends JpaRepository<PhotoUpload, String> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO photo_uploads (url, uploaded_at) VALUES (:url, :now) " +
+            "ON CONFLICT (url) DO UPDATE SET uploaded_at = EXCLUDED.uploaded_at", nativeQuery = true)
+    void recordUpload(@Param("url") String url, @Param("now") LocalDateTime now);
+
+    @Query(value = "SELECT u.url FROM photo_uploads u WHERE u.url = ANY((:urls)::text[]) " +
+            "AND u.uploaded_at >= :since", nativeQuery = true)
+    List<String> findUploadedSince(@Param("urls") String[] urls, @Param("since") LocalDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PhotoUpload u WHERE u.uploadedAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,33 @@
+package com.techup.spring_demo.repository;
+
+import com.techup.spring_demo.entity.TripEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TripEventRepository extends JpaRepository<TripEvent, Long> {
+
+    // Transactions below this id have all finished, so no event below it can still appear
+    @Query(value = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint", nativeQuery = true)
+    long findSnapshotXmin();
+
+    // Next events after a dispatcher's (txId, id) cursor, from finished transactions only, in
+    // transaction order; later commits always sort after what was already returned
+    @Query(value = "SELECT * FROM trip_events e WHERE (e.tx_id, e.id) > (:cursorTxId, :cursorId) " +
+            "AND e.tx_id < pg_snapshot_xmin(pg_current_snapshot())::text::bigint " +
+            "ORDER BY e.tx_id, e.id LIMIT :limit", nativeQuery = true)
+    List<TripEvent> findFinishedAfter(@Param("cursorTxId") long cursorTxId, @Param("cursorId") long cursorId,
+                                      @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TripEvent e WHERE e.createdAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -3,54 +3,67 @@ package com.techup.spring_demo.repository;
 import com.techup.spring_demo.entity.Trip;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TripRepository extends JpaRepository<Trip, Long> {
-        List<Trip> findByAuthorId(Long authorId);
 
-        @Query(value = "SELECT * FROM trips t " +
-                        "WHERE " +
-                        "(:query IS NULL OR :query = '' OR " +
+        // Shared WHERE clauses so the page, count and estimate queries stay in sync
+        // (array_length of an empty array is NULL, hence the COALESCE). Native queries bypass
+        // Trip's @SQLRestriction, so each one filters soft-deleted rows explicitly.
+        String SEARCH_TRIPS_WHERE = "WHERE t.deleted_at IS NULL " +
+                        "AND (:query IS NULL OR :query = '' OR " +
+                        "LOWER(t.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+                        "LOWER(t.description) LIKE LOWER(CONCAT('%', :query, '%'))) " +
+                        "AND (COALESCE(array_length(:tags, 1), 0) = 0 OR t.tags @> (:tags)::text[]) ";
+
+        // :sort is LATEST or POPULAR; non-popular rows fall through to created_at
+        String SEARCH_ORDER_BY = "ORDER BY CASE WHEN :sort = 'POPULAR' THEN t.view_count END DESC NULLS LAST, " +
+                        "t.created_at DESC";
+
+        String SEARCH_MY_TRIPS_WHERE = "WHERE t.author_id = :authorId AND t.deleted_at IS NULL " +
+                        "AND (:query IS NULL OR :query = '' OR " +
                         "LOWER(t.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
                         "LOWER(t.description) LIKE LOWER(CONCAT('%', :query, '%'))) " +
-                        "AND (array_length(:tags, 1) = 0 OR t.tags @> (:tags)::text[])\r\n" + //
-                        " " +
-                        "ORDER BY t.created_at DESC", countQuery = "SELECT COUNT(*) FROM trips t " +
-                                        "WHERE " +
-                                        "(:query IS NULL OR :query = '' OR " +
-                                        "LOWER(t.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-                                        "LOWER(t.description) LIKE LOWER(CONCAT('%', :query, '%'))) " +
-                                        "AND (array_length(:tags, 1) = 0 OR t.tags @> (:tags)::text[])\r\n" + //
-                                        "", nativeQuery = true)
+                        "AND (COALESCE(array_length(:tags, 1), 0) = 0 OR t.tags && (:tags)::text[]) ";
+
+        // Everything but description and the author join; photos cut to the cover when :coverOnly
+        String TRIP_PROJECTION_COLUMNS = "t.id, t.title, " +
+                        "CASE WHEN :coverOnly THEN t.photos[1:1] ELSE t.photos END AS photos, " +
+                        "t.tags, t.province, t.author_id, t.view_count, t.created_at, t.updated_at, " +
+                        "t.latitude, t.longitude ";
+
+        List<Trip> findByAuthorId(Long authorId);
+
+        @Query(value = "SELECT * FROM trips t " + SEARCH_TRIPS_WHERE +
+                        SEARCH_ORDER_BY, countQuery = "SELECT COUNT(*) FROM trips t " +
+                                        SEARCH_TRIPS_WHERE, nativeQuery = true)
         Page<Trip> searchTrips(
                         @Param("query") String query,
                         @Param("tags") String[] tags,
+                        @Param("sort") String sort,
                         Pageable pageable);
 
-        @Query(value = "SELECT * FROM trips t " +
-                        "WHERE t.author_id = :authorId " +
-                        "AND (:query IS NULL OR :query = '' OR " +
-                        "LOWER(t.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-                        "LOWER(t.description) LIKE LOWER(CONCAT('%', :query, '%'))) " +
-                        "AND (array_length(:tags, 1) = 0 OR t.tags && (:tags)::text[]) " +
-                        "ORDER BY t.created_at DESC", countQuery = "SELECT COUNT(*) FROM trips t " +
-                                        "WHERE t.author_id = :authorId " +
-                                        "AND (:query IS NULL OR :query = '' OR " +
-                                        "LOWER(t.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-                                        "LOWER(t.description) LIKE LOWER(CONCAT('%', :query, '%'))) " +
-                                        "AND (array_length(:tags, 1) = 0 OR t.tags && (:tags)::text[])", nativeQuery = true)
+        @Query(value = "SELECT * FROM trips t " + SEARCH_MY_TRIPS_WHERE +
+                        SEARCH_ORDER_BY, countQuery = "SELECT COUNT(*) FROM trips t " +
+                                        SEARCH_MY_TRIPS_WHERE, nativeQuery = true)
         Page<Trip> searchMyTrips(
                         @Param("authorId") Long authorId,
                         @Param("query") String query,
                         @Param("tags") String[] tags,
+                        @Param("sort") String sort,
                         Pageable pageable);
 
         // Get all trips with pagination and author
@@ -60,4 +73,170 @@ public interface TripRepository extends JpaRepository<Trip, Long> {
         // Get trip by ID with author
         @EntityGraph(attributePaths = { "author" })
         Optional<Trip> findById(Long id);
+
+        // Slice variants: fetch size + 1 rows to compute hasNext without running COUNT(*)
+        @EntityGraph(attributePaths = { "author" })
+        Slice<Trip> findSliceBy(Pageable pageable);
+
+        @EntityGraph(attributePaths = { "author" })
+        Slice<Trip> findSliceByAuthorId(Long authorId, Pageable pageable);
+
+        @Query(value = "SELECT * FROM trips t " + SEARCH_TRIPS_WHERE +
+                        SEARCH_ORDER_BY, nativeQuery = true)
+        Slice<Trip> searchTripsSlice(
+                        @Param("query") String query,
+                        @Param("tags") String[] tags,
+                        @Param("sort") String sort,
+                        Pageable pageable);
+
+        @Query(value = "SELECT * FROM trips t " + SEARCH_MY_TRIPS_WHERE +
+                        SEARCH_ORDER_BY, nativeQuery = true)
+        Slice<Trip> searchMyTripsSlice(
+                        @Param("authorId") Long authorId,
+                        @Param("query") String query,
+                        @Param("tags") String[] tags,
+                        @Param("sort") String sort,
+                        Pageable pageable);
+
+        // Column projections for list views that do not need description/author (?fields=)
+        @Query(value = "SELECT " + TRIP_PROJECTION_COLUMNS + "FROM trips t " + SEARCH_TRIPS_WHERE +
+                        SEARCH_ORDER_BY, nativeQuery = true)
+        Slice<Object[]> searchTripProjections(
+                        @Param("query") String query,
+                        @Param("tags") String[] tags,
+                        @Param("sort") String sort,
+                        @Param("coverOnly") boolean coverOnly,
+                        Pageable pageable);
+
+        @Query(value = "SELECT " + TRIP_PROJECTION_COLUMNS + "FROM trips t " + SEARCH_MY_TRIPS_WHERE +
+                        SEARCH_ORDER_BY, nativeQuery = true)
+        Slice<Object[]> searchMyTripProjections(
+                        @Param("authorId") Long authorId,
+                        @Param("query") String query,
+                        @Param("tags") String[] tags,
+                        @Param("sort") String sort,
+                        @Param("coverOnly") boolean coverOnly,
+                        Pageable pageable);
+
+        // Only the columns the suggestion index needs, loaded once at startup
+        @Query("SELECT t.id, t.title, t.tags FROM Trip t")
+        List<Object[]> findAllTitlesAndTags();
+
+        // Compact rows for the trending feed materialization, newest first
+        @Query("SELECT t.id, t.tags, t.province, t.viewCount, t.createdAt FROM Trip t " +
+                        "WHERE t.createdAt >= :since ORDER BY t.createdAt DESC")
+        List<Object[]> findFeedCandidates(@Param("since") LocalDateTime since, Pageable pageable);
+
+        // Change feed for one author: live trips by updated_at plus DELETED outbox rows as tombstones,
+        // keyset-paged on (changed_at, trip_id) and backed by the author/time indexes
+        @Query(value = "SELECT c.trip_id, c.changed_at, c.deleted FROM (" +
+                        "SELECT t.id AS trip_id, t.updated_at AS changed_at, false AS deleted FROM trips t " +
+                        "WHERE t.author_id = :authorId AND t.deleted_at IS NULL " +
+                        "AND (t.updated_at, t.id) > (:since, :sinceId) " +
+                        "AND t.updated_at <= :until " +
+                        "UNION ALL " +
+                        "SELECT e.trip_id, e.created_at, true FROM trip_events e " +
+                        "WHERE e.type = 'DELETED' AND e.author_id = :authorId " +
+                        "AND (e.created_at, e.trip_id) > (:since, :sinceId) AND e.created_at <= :until" +
+                        ") c ORDER BY c.changed_at, c.trip_id", nativeQuery = true)
+        List<Object[]> findChangesByAuthor(
+                        @Param("authorId") Long authorId,
+                        @Param("since") LocalDateTime since,
+                        @Param("sinceId") long sinceId,
+                        @Param("until") LocalDateTime until,
+                        Pageable pageable);
+
+        // Resolve a page of ranked ids in one query; callers restore the ranking order
+        @EntityGraph(attributePaths = { "author" })
+        List<Trip> findByIdIn(Collection<Long> ids);
+
+        // Soft-deleted trips past their grace period, oldest first (see TripPurgeService)
+        // Trips with a photo an upload handed out since :uploadedAfter wait: a new trip may be about to use it
+        @Query(value = "SELECT t.id, t.photos FROM trips t WHERE t.deleted_at < :before " +
+                        "AND NOT EXISTS (SELECT 1 FROM photo_uploads u WHERE u.url = ANY(t.photos) " +
+                        "AND u.uploaded_at >= :uploadedAfter) " +
+                        "ORDER BY t.deleted_at LIMIT :limit", nativeQuery = true)
+        List<Object[]> findPurgeCandidates(
+                        @Param("before") LocalDateTime before,
+                        @Param("uploadedAfter") LocalDateTime uploadedAfter,
+                        @Param("limit") int limit);
+
+        // Which of these photo URLs are still used by any trip outside the batch being purged
+        @Query(value = "SELECT DISTINCT p.url FROM trips t CROSS JOIN unnest(t.photos) AS p(url) " +
+                        "WHERE t.photos && (:urls)::text[] AND t.id <> ALL((:ids)::bigint[]) " +
+                        "AND p.url = ANY((:urls)::text[])", nativeQuery = true)
+        List<String> findReferencedPhotos(
+                        @Param("urls") String[] urls,
+                        @Param("ids") Long[] ids);
+
+        // Conditional writes: liveness, ownership and the version (any of :versions, the If-Match list, unless
+        // :anyVersion for If-Match: *) are checked by the UPDATE itself, without reading the row first.
+        // 0 rows means missing, not the author's or stale; TripService reads the row only then, to tell
+        // which. Unchanged TEXT/array values keep the stored datum instead of being rewritten, like
+        // @DynamicUpdate does for entity saves. The UPDATE bypasses the persistence context, so it is
+        // flushed before and cleared after: the read-back that follows maps the row as written instead of
+        // returning a Trip instance loaded earlier in the session.
+        String CONDITIONAL_WRITE_WHERE = "WHERE t.id = :id AND t.author_id = :authorId AND t.deleted_at IS NULL " +
+                        "AND (:anyVersion OR t.version = ANY((:versions)::bigint[])) ";
+
+        @Modifying(flushAutomatically = true, clearAutomatically = true)
+        @Query(value = "UPDATE trips t SET title = :title, " +
+                        "description = CASE WHEN t.description IS DISTINCT FROM :description " +
+                        "THEN :description ELSE t.description END, " +
+                        "photos = CASE WHEN :replacePhotos AND t.photos IS DISTINCT FROM (:photos)::text[] " +
+                        "THEN (:photos)::text[] ELSE t.photos END, " +
+                        "tags = CASE WHEN :replaceTags AND t.tags IS DISTINCT FROM (:tags)::text[] " +
+                        "THEN (:tags)::text[] ELSE t.tags END, " +
+                        "latitude = :latitude, longitude = :longitude, province = :province, " +
+                        "updated_at = :now, version = t.version + 1 " +
+                        CONDITIONAL_WRITE_WHERE, nativeQuery = true)
+        int updateIfCurrent(
+                        @Param("id") Long id,
+                        @Param("authorId") Long authorId,
+                        @Param("anyVersion") boolean anyVersion,
+                        @Param("versions") Long[] versions,
+                        @Param("title") String title,
+                        @Param("description") String description,
+                        @Param("replacePhotos") boolean replacePhotos,
+                        @Param("photos") String[] photos,
+                        @Param("replaceTags") boolean replaceTags,
+                        @Param("tags") String[] tags,
+                        @Param("latitude") Double latitude,
+                        @Param("longitude") Double longitude,
+                        @Param("province") String province,
+                        @Param("now") LocalDateTime now);
+
+        @Modifying(flushAutomatically = true, clearAutomatically = true)
+        @Query(value = "UPDATE trips t SET deleted_at = :now, version = t.version + 1 " +
+                        CONDITIONAL_WRITE_WHERE, nativeQuery = true)
+        int softDeleteIfCurrent(
+                        @Param("id") Long id,
+                        @Param("authorId") Long authorId,
+                        @Param("anyVersion") boolean anyVersion,
+                        @Param("versions") Long[] versions,
+                        @Param("now") LocalDateTime now);
+
+        // Native SQL is not subject to @SQLRestriction: reads a trip that was just soft-deleted, for its
+        // outbox snapshot
+        @Query(value = "SELECT * FROM trips WHERE id = :id", nativeQuery = true)
+        Optional<Trip> findByIdIncludingDeleted(@Param("id") Long id);
+
+        @Modifying
+        @Transactional
+        @Query(value = "DELETE FROM trips WHERE id IN (:ids) AND deleted_at IS NOT NULL", nativeQuery = true)
+        int hardDeleteByIds(@Param("ids") Collection<Long> ids);
+
+        // Standalone counts used by TripCountService when a cached count expires
+        long countByAuthorId(Long authorId);
+
+        @Query(value = "SELECT COUNT(*) FROM trips t " + SEARCH_TRIPS_WHERE, nativeQuery = true)
+        long countSearchTrips(
+                        @Param("query") String query,
+                        @Param("tags") String[] tags);
+
+        @Query(value = "SELECT COUNT(*) FROM trips t " + SEARCH_MY_TRIPS_WHERE, nativeQuery = true)
+        long countSearchMyTrips(
+                        @Param("authorId") Long authorId,
+                        @Param("query") String query,
+                        @Param("tags") String[] tags);
 }
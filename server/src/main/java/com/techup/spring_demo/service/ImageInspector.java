@@ -0,0 +1,155 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.exception.BadRequestException;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Identifies JPEG, PNG, GIF and WebP by their signature and reads the pixel dimensions from the
+ * header. Only the header is consumed (for JPEG, the segments before the first frame, which are
+ * read through a small scratch buffer rather than kept), so memory stays constant whatever the file
+ * size, and the caller can keep reading the same stream afterwards. Bytes are always read, never
+ * {@code skip}ped: a wrapping DigestInputStream only hashes what passes through {@code read}.
+ */
+final class ImageInspector {
+
+    record ImageInfo(String contentType, int width, int height) {
+        long pixels() {
+            return (long) width * height;
+        }
+    }
+
+    private ImageInspector() {
+    }
+
+    static ImageInfo inspect(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        byte[] head = new byte[12];
+        try {
+            in.readFully(head, 0, 2);
+            if ((head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8) {
+                return jpeg(in);
+            }
+            in.readFully(head, 2, 10);
+        } catch (EOFException e) {
+            throw new BadRequestException("File is not a supported image");
+        }
+
+        try {
+            if (startsWith(head, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+                return png(in);
+            }
+            if (startsWith(head, 'G', 'I', 'F', '8') && (head[4] == '7' || head[4] == '9') && head[5] == 'a') {
+                // Logical screen size, little-endian, right after the 6-byte signature
+                int width = (head[6] & 0xFF) | (head[7] & 0xFF) << 8;
+                int height = (head[8] & 0xFF) | (head[9] & 0xFF) << 8;
+                return new ImageInfo("image/gif", width, height);
+            }
+            if (startsWith(head, 'R', 'I', 'F', 'F') && head[8] == 'W' && head[9] == 'E' && head[10] == 'B'
+                    && head[11] == 'P') {
+                return webp(in);
+            }
+        } catch (EOFException e) {
+            throw new BadRequestException("Image header is truncated");
+        }
+        throw new BadRequestException("File is not a supported image");
+    }
+
+    // 12 bytes consumed: signature (8) + IHDR length (4); next is the IHDR type and then width/height
+    private static ImageInfo png(DataInputStream in) throws IOException {
+        byte[] type = new byte[4];
+        in.readFully(type);
+        if (!startsWith(type, 'I', 'H', 'D', 'R')) {
+            throw new BadRequestException("Malformed PNG header");
+        }
+        return new ImageInfo("image/png", in.readInt(), in.readInt());
+    }
+
+    // 12 bytes consumed: "RIFF", size, "WEBP"; then the first chunk decides the flavour
+    private static ImageInfo webp(DataInputStream in) throws IOException {
+        byte[] chunk = new byte[8];
+        in.readFully(chunk);
+        byte[] data = new byte[10];
+        in.readFully(data);
+
+        if (startsWith(chunk, 'V', 'P', '8', ' ')) {
+            // Lossy: 3-byte frame tag, 3-byte start code, then 14-bit width and height
+            int width = ((data[6] & 0xFF) | (data[7] & 0xFF) << 8) & 0x3FFF;
+            int height = ((data[8] & 0xFF) | (data[9] & 0xFF) << 8) & 0x3FFF;
+            return new ImageInfo("image/webp", width, height);
+        }
+        if (startsWith(chunk, 'V', 'P', '8', 'L')) {
+            // Lossless: signature byte, then (width - 1) and (height - 1) packed into 14 bits each
+            int bits = (data[1] & 0xFF) | (data[2] & 0xFF) << 8 | (data[3] & 0xFF) << 16 | (data[4] & 0xFF) << 24;
+            return new ImageInfo("image/webp", (bits & 0x3FFF) + 1, ((bits >>> 14) & 0x3FFF) + 1);
+        }
+        if (startsWith(chunk, 'V', 'P', '8', 'X')) {
+            // Extended: flags (4), then 24-bit (width - 1) and (height - 1)
+            int width = ((data[4] & 0xFF) | (data[5] & 0xFF) << 8 | (data[6] & 0xFF) << 16) + 1;
+            int height = ((data[7] & 0xFF) | (data[8] & 0xFF) << 8 | (data[9] & 0xFF) << 16) + 1;
+            return new ImageInfo("image/webp", width, height);
+        }
+        throw new BadRequestException("Malformed WebP header");
+    }
+
+    // Walks the marker segments after SOI until a start-of-frame, discarding the ones before it
+    private static ImageInfo jpeg(DataInputStream in) throws IOException {
+        try {
+            while (true) {
+                int marker = in.readUnsignedByte();
+                if (marker != 0xFF) {
+                    throw new BadRequestException("Malformed JPEG header");
+                }
+                int type = in.readUnsignedByte();
+                while (type == 0xFF) {
+                    type = in.readUnsignedByte();
+                }
+                // Standalone markers carry no length
+                if (type == 0x01 || (type >= 0xD0 && type <= 0xD7)) {
+                    continue;
+                }
+                if (type == 0xD9 || type == 0xDA) {
+                    throw new BadRequestException("JPEG has no frame header");
+                }
+
+                int length = in.readUnsignedShort();
+                if (length < 2) {
+                    throw new BadRequestException("Malformed JPEG header");
+                }
+                boolean startOfFrame = type >= 0xC0 && type <= 0xCF
+                        && type != 0xC4 && type != 0xC8 && type != 0xCC;
+                if (startOfFrame) {
+                    in.readUnsignedByte(); // sample precision
+                    int height = in.readUnsignedShort();
+                    int width = in.readUnsignedShort();
+                    return new ImageInfo("image/jpeg", width, height);
+                }
+                discard(in, length - 2);
+            }
+        } catch (EOFException e) {
+            throw new BadRequestException("Image header is truncated");
+        }
+    }
+
+    // Reads and drops n bytes (APPn/EXIF, tables) so they still reach any digest wrapping the stream
+    private static void discard(DataInputStream in, int n) throws IOException {
+        byte[] scratch = new byte[Math.min(n, 8192)];
+        while (n > 0) {
+            int chunk = Math.min(n, scratch.length);
+            in.readFully(scratch, 0, chunk);
+            n -= chunk;
+        }
+    }
+
+    private static boolean startsWith(byte[] bytes, int... expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if ((bytes[i] & 0xFF) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,70 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.config.RateLimitProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Token buckets keyed by client + route; each bucket locks only itself, so contention is per key
+public class InMemoryRateLimiter implements RateLimiter {
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public Decision tryAcquire(String key, RateLimitProperties.Rule rule) {
+        TokenBucket bucket = buckets.computeIfAbsent(key,
+                ignored -> new TokenBucket(rule.getCapacity(), rule.getRefillPerSecond()));
+        return bucket.tryConsume(System.nanoTime());
+    }
+
+    // A bucket that has been idle long enough to refill completely is equivalent to a new one
+    @Scheduled(fixedDelayString = "${ratelimit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private static final class TokenBucket {
+        private final double capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(long capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerSecond / 1_000_000_000d;
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        synchronized Decision tryConsume(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return Decision.ALLOWED;
+            }
+            long waitMillis = refillPerNano > 0
+                    ? (long) Math.ceil((1 - tokens) / refillPerNano / 1_000_000d)
+                    : Long.MAX_VALUE;
+            return new Decision(false, waitMillis);
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            long elapsed = now - lastRefill;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+                lastRefill = now;
+            }
+        }
+    }
+}
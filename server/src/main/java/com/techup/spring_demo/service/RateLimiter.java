@@ -0,0 +1,14 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.config.RateLimitProperties;
+
+// Backend for RateLimitFilter; declare another bean (e.g. Redis-backed) to share buckets across instances
+public interface RateLimiter {
+
+    Decision tryAcquire(String key, RateLimitProperties.Rule rule);
+
+    record Decision(boolean allowed, long retryAfterMillis) {
+
+        public static final Decision ALLOWED = new Decision(true, 0);
+    }
+}
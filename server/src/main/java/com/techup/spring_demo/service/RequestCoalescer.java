@@ -0,0 +1,76 @@
+package com.techup.spring_demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for reads: concurrent calls with the same key share one in-flight load and its result
+ * (or exception). Followers wait at most {@code trips.coalescing.max-wait-ms}, then load on their own.
+ * Keys must be namespaced per result type, e.g. {@code "trip:42"}.
+ */
+@Service
+public class RequestCoalescer {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final long maxWaitMillis;
+    private final Counter leaders;
+    private final Counter coalesced;
+    private final Counter timeouts;
+
+    public RequestCoalescer(MeterRegistry meterRegistry,
+            @Value("${trips.coalescing.max-wait-ms:2000}") long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+        this.leaders = meterRegistry.counter("trips.coalescing.requests", "outcome", "leader");
+        this.coalesced = meterRegistry.counter("trips.coalescing.requests", "outcome", "coalesced");
+        this.timeouts = meterRegistry.counter("trips.coalescing.requests", "outcome", "timeout");
+        meterRegistry.gaugeMapSize("trips.coalescing.in_flight", List.of(), inFlight);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T coalesce(String key, Supplier<T> loader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+
+        if (existing == null) {
+            leaders.increment();
+            try {
+                T value = loader.get();
+                mine.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+
+        coalesced.increment();
+        try {
+            return (T) existing.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + key, e);
+        }
+    }
+}
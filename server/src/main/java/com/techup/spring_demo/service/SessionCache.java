@@ -0,0 +1,105 @@
+package com.techup.spring_demo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens Supabase has recently accepted, with the user they resolved to. An entry lives for
+ * {@code auth.session-cache.ttl-seconds} but never past the token's own {@code exp}, and is dropped on
+ * logout or profile change. Logout on another instance is only seen once the entry expires here.
+ */
+@Component
+public class SessionCache {
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, CachedSession> sessions = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    @Value("${auth.session-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${auth.session-cache.max-entries:50000}")
+    private int maxEntries;
+
+    public SessionCache(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.hits = meterRegistry.counter("auth.session_cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("auth.session_cache.requests", "result", "miss");
+        meterRegistry.gaugeMapSize("auth.session_cache.size", List.of(), sessions);
+    }
+
+    public SupabaseAuthService.UserResult get(String accessToken) {
+        String key = key(accessToken);
+        CachedSession session = sessions.get(key);
+        if (session != null && session.expiresAt() > System.currentTimeMillis()) {
+            hits.increment();
+            return session.user();
+        }
+        if (session != null) {
+            sessions.remove(key, session);
+        }
+        misses.increment();
+        return null;
+    }
+
+    // User id of a token Supabase already accepted, or null; no Supabase call and no hit/miss counted
+    // (RateLimitFilter keys per-user buckets on it before the request reaches a controller)
+    public String peekUserId(String accessToken) {
+        CachedSession session = sessions.get(key(accessToken));
+        return session != null && session.expiresAt() > System.currentTimeMillis() ? session.user().getId() : null;
+    }
+
+    public void put(String accessToken, SupabaseAuthService.UserResult user) {
+        long expiresAt = Math.min(System.currentTimeMillis() + ttlSeconds * 1000, tokenExpiry(accessToken));
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        if (sessions.size() >= maxEntries) {
+            sessions.clear();
+        }
+        sessions.put(key(accessToken), new CachedSession(user, expiresAt));
+    }
+
+    public void invalidate(String accessToken) {
+        sessions.remove(key(accessToken));
+    }
+
+    // exp claim of the JWT; the signature was already checked by Supabase when the entry was made
+    private long tokenExpiry(String accessToken) {
+        try {
+            String[] parts = accessToken.split("\\.");
+            JsonNode claims = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            JsonNode exp = claims.get("exp");
+            return exp != null && exp.canConvertToLong() ? exp.asLong() * 1000 : Long.MAX_VALUE;
+        } catch (Exception e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    // Keyed by digest so live bearer tokens aren't kept around as map keys
+    private String key(String accessToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(accessToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record CachedSession(SupabaseAuthService.UserResult user, long expiresAt) {
+    }
+}
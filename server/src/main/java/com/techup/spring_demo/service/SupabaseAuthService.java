@@ -5,6 +5,9 @@ import com.techup.spring_demo.dto.supabase.SupabaseLoginResponse;
 import com.techup.spring_demo.dto.supabase.SupabaseRegisterRequest;
 import com.techup.spring_demo.dto.supabase.SupabaseRegisterResponse;
 import com.techup.spring_demo.dto.supabase.SupabaseUserResponse;
+import com.techup.spring_demo.exception.ApiException;
+import com.techup.spring_demo.exception.BadRequestException;
+import com.techup.spring_demo.exception.UnauthorizedException;
 
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +15,7 @@ import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -21,9 +25,10 @@ import java.util.Map;
 public class SupabaseAuthService {
 
     private final WebClient supabaseWebClient;
+    private final SessionCache sessionCache;
 
     // Register Service
-    public RegisterResult register(String email, String password, String displayName, String avatarUrl) {
+    public Mono<RegisterResult> register(String email, String password, String displayName, String avatarUrl) {
         SupabaseRegisterRequest request = new SupabaseRegisterRequest();
         request.setEmail(email);
         request.setPassword(password);
@@ -38,22 +43,23 @@ public class SupabaseAuthService {
 
         request.setData(metadata);
 
-        try {
-            SupabaseRegisterResponse response = supabaseWebClient
-                    .post()
-                    .uri("/signup")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(request)
-                    .retrieve()
-                    .bodyToMono(SupabaseRegisterResponse.class)
-                    .block();
-
-            if (response != null && response.getUser() != null) {
-                return new RegisterResult(true, "User registered successfully", response.getUser().getId(), email);
-            }
-            return new RegisterResult(false, "Registration failed", null, email);
+        // Non-blocking: the request thread is released while Supabase works (see AuthController)
+        return supabaseWebClient
+                .post()
+                .uri("/signup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(SupabaseRegisterResponse.class)
+                .map(response -> response.getUser() != null
+                        ? new RegisterResult(true, "User registered successfully", response.getUser().getId(), email)
+                        : new RegisterResult(false, "Registration failed", null, email))
+                .defaultIfEmpty(new RegisterResult(false, "Registration failed", null, email))
+                .onErrorMap(e -> !(e instanceof ApiException), this::registerError);
+    }
 
-        } catch (WebClientResponseException e) {
+    private ApiException registerError(Throwable error) {
+        if (error instanceof WebClientResponseException e) {
             // Parse error response from Supabase
             String errorMessage = "Registration failed";
             if (e.getResponseBodyAsString() != null && e.getResponseBodyAsString().contains("already registered")) {
@@ -64,43 +70,42 @@ public class SupabaseAuthService {
                 errorMessage = "Invalid email or password";
             }
 
-            throw new RuntimeException(errorMessage != null ? errorMessage : "Registration failed");
-        } catch (Exception e) {
-            throw new RuntimeException("Registration failed: " + e.getMessage());
+            return new BadRequestException(errorMessage);
         }
+        return new BadRequestException("Registration failed: " + error.getMessage());
     }
 
     // Login Service
-    public LoginResult login(String email, String password) {
+    public Mono<LoginResult> login(String email, String password) {
         SupabaseLoginRequest request = new SupabaseLoginRequest();
         request.setEmail(email);
         request.setPassword(password);
         request.setGrantType("password");
 
-        try {
-            SupabaseLoginResponse response = supabaseWebClient
-                    .post()
-                    .uri("/token?grant_type=password")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(request)
-                    .retrieve()
-                    .bodyToMono(SupabaseLoginResponse.class)
-                    .block();
-
-            if (response != null && response.getAccessToken() != null) {
-                return new LoginResult(
+        return supabaseWebClient
+                .post()
+                .uri("/token?grant_type=password")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(SupabaseLoginResponse.class)
+                .filter(response -> response.getAccessToken() != null)
+                .map(response -> new LoginResult(
                         true,
                         "Login successful",
                         response.getAccessToken(),
                         response.getRefreshToken(),
                         response.getUser() != null ? response.getUser().getId() : null,
-                        response.getUser() != null ? response.getUser().getEmail() : email);
-            }
-            return new LoginResult(false, "Login failed", null, null, null, email);
+                        response.getUser() != null ? response.getUser().getEmail() : email))
+                .defaultIfEmpty(new LoginResult(false, "Login failed", null, null, null, email))
+                .onErrorMap(e -> !(e instanceof ApiException), this::loginError);
+    }
 
-        } catch (WebClientResponseException.Unauthorized e) {
-            throw new RuntimeException("Invalid email or password");
-        } catch (WebClientResponseException e) {
+    private ApiException loginError(Throwable error) {
+        if (error instanceof WebClientResponseException.Unauthorized) {
+            return new UnauthorizedException("Invalid email or password");
+        }
+        if (error instanceof WebClientResponseException e) {
             String errorMessage = "Login failed";
             String responseBody = e.getResponseBodyAsString();
 
@@ -113,10 +118,12 @@ public class SupabaseAuthService {
                 }
             }
 
-            throw new RuntimeException(errorMessage);
-        } catch (Exception e) {
-            throw new RuntimeException("Login failed: " + e.getMessage());
+            if ("Invalid email or password".equals(errorMessage) || "Login failed".equals(errorMessage)) {
+                return new UnauthorizedException(errorMessage);
+            }
+            return new BadRequestException(errorMessage);
         }
+        return new UnauthorizedException("Login failed: " + error.getMessage());
     }
 
     // Update Profile Service
@@ -143,24 +150,34 @@ public class SupabaseAuthService {
                     .block();
 
             if (response != null) {
-                return new UserResult(
+                UserResult user = new UserResult(
                         true,
                         response.getId(),
                         response.getEmail(),
                         response.getDisplayName(),
                         response.getAvatarUrl(),
                         response.getCreatedAt());
+                // /me must show the new profile right away
+                sessionCache.put(accessToken, user);
+                return user;
             }
 
-            throw new RuntimeException("Failed to update profile");
+            sessionCache.invalidate(accessToken);
+            throw new BadRequestException("Failed to update profile");
 
+        } catch (ApiException e) {
+            throw e;
+        } catch (WebClientResponseException.Unauthorized e) {
+            throw new UnauthorizedException("Invalid or expired token");
         } catch (Exception e) {
-            throw new RuntimeException("Update profile failed: " + e.getMessage());
+            throw new BadRequestException("Update profile failed: " + e.getMessage());
         }
     }
 
     // Logout Service
     public LogoutResult logout(String accessToken) {
+        // Whatever Supabase answers, this token must stop resolving locally
+        sessionCache.invalidate(accessToken);
         try {
             String response = supabaseWebClient
                     .post()
@@ -173,18 +190,23 @@ public class SupabaseAuthService {
             return new LogoutResult(true, "Logged out successfully");
 
         } catch (WebClientResponseException.Unauthorized e) {
-            throw new RuntimeException("Invalid or expired token");
+            throw new UnauthorizedException("Invalid or expired token");
         } catch (WebClientResponseException e) {
             // Even if Supabase returns an error, we can consider logout successful
             // since the client will discard the token anyway
             return new LogoutResult(true, "Logged out successfully");
         } catch (Exception e) {
-            throw new RuntimeException("Logout failed: " + e.getMessage());
+            throw new BadRequestException("Logout failed: " + e.getMessage());
         }
     }
 
     // Get User Service
+    // Served from SessionCache when the token was validated recently; also backs TripController's auth
     public UserResult getCurrentUser(String accessToken) {
+        UserResult cached = sessionCache.get(accessToken);
+        if (cached != null) {
+            return cached;
+        }
         try {
             SupabaseUserResponse response = supabaseWebClient
                     .get()
@@ -195,22 +217,26 @@ public class SupabaseAuthService {
                     .block();
 
             if (response != null) {
-                return new UserResult(
+                UserResult user = new UserResult(
                         true,
                         response.getId(),
                         response.getEmail(),
                         response.getDisplayName(),
                         response.getAvatarUrl(),
                         response.getCreatedAt());
+                sessionCache.put(accessToken, user);
+                return user;
             }
-            throw new RuntimeException("Failed to get user information");
+            throw new BadRequestException("Failed to get user information");
 
+        } catch (ApiException e) {
+            throw e;
         } catch (WebClientResponseException.Unauthorized e) {
-            throw new RuntimeException("Invalid or expired token");
+            throw new UnauthorizedException("Invalid or expired token");
         } catch (WebClientResponseException e) {
-            throw new RuntimeException("Failed to get user information: " + e.getMessage());
+            throw new BadRequestException("Failed to get user information: " + e.getMessage());
         } catch (Exception e) {
-            throw new RuntimeException("Failed to get user information: " + e.getMessage());
+            throw new BadRequestException("Failed to get user information: " + e.getMessage());
         }
     }
 
@@ -1,62 +1,480 @@
 package com.techup.spring_demo.service;
 
+import com.techup.spring_demo.dto.FileUploadResult;
+import com.techup.spring_demo.dto.UploadUrlResponse;
+import com.techup.spring_demo.exception.ApiException;
+import com.techup.spring_demo.exception.BadRequestException;
+import com.techup.spring_demo.exception.ForbiddenException;
+import com.techup.spring_demo.exception.NotFoundException;
+import com.techup.spring_demo.repository.PhotoUploadRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 
 @Service
+@RequiredArgsConstructor
 public class SupabaseStorageService {
 
+  private static final Logger logger = LoggerFactory.getLogger(SupabaseStorageService.class);
+
+  // Supabase's bulk delete takes a list of object paths per request
+  private static final int DELETE_CHUNK_SIZE = 100;
+  private static final int KNOWN_OBJECTS_MAX = 50_000;
+
+  public static final Set<String> IMAGE_CONTENT_TYPES = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
+  public static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
+
+  // Enough for a JPEG's metadata segments before its frame header; read as a stream, so it is not tied to
+  // the WebClient codec's in-memory limit
+  private static final int SNIFF_BYTES = 256 * 1024;
+
+  // Objects uploaded straight from the browser through a signed URL, as direct/<supabase user id>/<uuid>.<ext>
+  private static final String DIRECT_UPLOAD_PREFIX = "direct/";
+  private static final Pattern DIRECT_UPLOAD_NAME = Pattern.compile("[0-9a-f-]{36}\\.[a-z0-9]{1,8}");
+
   @Value("${supabase.url}")
   private String supabaseUrl;
 
   @Value("${supabase.bucket}")
   private String bucket;
 
+  // Deletes have no user token to act with; without a service key nothing is deleted and
+  // direct uploads (which must be able to delete rejected objects) are refused
+  @Value("${supabase.serviceRoleKey:}")
+  private String serviceRoleKey;
+
+  @Value("${supabase.storage.delete-concurrency:4}")
+  private int deleteConcurrency;
+
+  @Value("${supabase.storage.upload-concurrency:4}")
+  private int uploadConcurrency;
+
+  @Value("${supabase.storage.upload-timeout-seconds:30}")
+  private long uploadTimeoutSeconds;
+
+  @Value("${supabase.storage.max-image-dimension:8000}")
+  private int maxImageDimension;
+
+  @Value("${supabase.storage.max-image-pixels:40000000}")
+  private long maxImagePixels;
+
+  private final PhotoUploadRepository photoUploadRepository;
+
   private final WebClient webClient = WebClient.builder().build();
 
-  /** อัปโหลดไฟล์ขึ้น Supabase แล้วคืน public URL */
-  public String uploadFile(MultipartFile file, String userToken) {
-    String original = file.getOriginalFilename() != null ? file.getOriginalFilename() : "file.bin";
-    String fileName = System.currentTimeMillis() + "_" + original;
-    String uploadUrl = String.format("%s/storage/v1/object/%s/%s", supabaseUrl, bucket, fileName);
+  // Object names this instance has stored or seen stored; bounded, least recently used evicted first.
+  // Only a hint: a hit is still confirmed against storage, since objects can be purged meanwhile
+  private final Set<String> knownObjects = Collections.newSetFromMap(Collections.synchronizedMap(
+      new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+          return size() > KNOWN_OBJECTS_MAX;
+        }
+      }));
 
-    byte[] bytes;
+  /**
+   * อัปโหลดไฟล์ขึ้น Supabase แล้วคืน public URL.
+   * Objects are named by the SHA-256 of their content, so re-uploading the same photo returns the
+   * existing URL; a hash seen before by this instance is confirmed with a HEAD instead of re-sent.
+   */
+  public String uploadFile(MultipartFile file, String userToken) {
+    InspectedFile inspected = inspect(file);
     try {
-      bytes = file.getBytes();
+      return store(inspected, file, userToken).block();
+    } catch (ResponseStatusException ex) {
+      throw ex;
+    } catch (Exception ex) {
+      throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Unexpected error while uploading to Supabase", ex);
+    }
+  }
+
+  /**
+   * Uploads several files with at most {@code upload-concurrency} transfers in flight, each bounded by
+   * {@code upload-timeout-seconds}. One failure doesn't affect the others; results keep the input order.
+   */
+  public List<FileUploadResult> uploadFiles(List<MultipartFile> files, String userToken) {
+    long start = System.currentTimeMillis();
+    List<FileUploadResult> results = Flux.fromIterable(files)
+        .flatMapSequential(file -> Mono.fromCallable(() -> inspect(file))
+            // Reading the multipart part may touch disk, keep it off the WebClient event loop
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(inspected -> store(inspected, file, userToken))
+            .timeout(Duration.ofSeconds(uploadTimeoutSeconds))
+            .map(url -> new FileUploadResult(file.getOriginalFilename(), url, null))
+            .onErrorResume(e -> Mono.just(new FileUploadResult(file.getOriginalFilename(), null, uploadError(e)))),
+            uploadConcurrency)
+        .collectList()
+        .block();
+
+    logger.debug("Uploaded {} files ({} in parallel) in {} ms",
+        files.size(), uploadConcurrency, System.currentTimeMillis() - start);
+    return results;
+  }
+
+  private String uploadError(Throwable e) {
+    if (e instanceof TimeoutException) {
+      return "Upload timed out";
+    }
+    if (e instanceof ApiException) {
+      return e.getMessage();
+    }
+    if (e instanceof ResponseStatusException rse && rse.getReason() != null) {
+      return rse.getReason();
+    }
+    return "Unexpected error while uploading to Supabase";
+  }
+
+  /**
+   * One streaming pass over the part: the header is sniffed (real type, dimensions) before anything
+   * else is read, so a fake or oversized image is rejected without reading the rest or touching the
+   * network; the remainder only flows through the digest in small chunks.
+   */
+  private InspectedFile inspect(MultipartFile file) {
+    try (DigestInputStream in = new DigestInputStream(file.getInputStream(), MessageDigest.getInstance("SHA-256"))) {
+      ImageInspector.ImageInfo image = ImageInspector.inspect(in);
+      checkDimensions(image);
+      in.transferTo(OutputStream.nullOutputStream());
+      String hash = HexFormat.of().formatHex(in.getMessageDigest().digest());
+      return new InspectedFile(hash + "." + extension(image.contentType(), null), image.contentType());
     } catch (IOException e) {
       throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot read file bytes", e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
     }
+  }
+
+  // Dimensions come from the header, so decompression bombs are caught before anyone decodes them
+  private void checkDimensions(ImageInspector.ImageInfo image) {
+    if (image.width() <= 0 || image.height() <= 0) {
+      throw new BadRequestException("Image has no dimensions");
+    }
+    if (image.width() > maxImageDimension || image.height() > maxImageDimension
+        || image.pixels() > maxImagePixels) {
+      throw new BadRequestException("Image dimensions exceed " + maxImageDimension + "px or "
+          + maxImagePixels + " pixels");
+    }
+  }
+
+  private Mono<String> store(InspectedFile inspected, MultipartFile file, String userToken) {
+    String fileName = inspected.fileName();
+    // public URL สำหรับ access ไฟล์ได้ทันที
+    String publicUrl = publicUrl(fileName);
+    // Recorded before the object is checked or written, so a purge running meanwhile already keeps it
+    Mono<Void> record = Mono.<Void>fromRunnable(
+            () -> photoUploadRepository.recordUpload(publicUrl, LocalDateTime.now()))
+        .subscribeOn(Schedulers.boundedElastic());
+    if (!knownObjects.contains(fileName)) {
+      return record.then(upload(inspected, file, userToken, publicUrl));
+    }
+    // Seen before, but it may have been purged since (possibly by another instance): confirm it
+    // with a HEAD, which is far cheaper than sending the bytes again, and upload if it's gone
+    return record.then(webClient.head()
+        .uri(publicUrl)
+        .retrieve()
+        .toBodilessEntity()
+        .thenReturn(publicUrl)
+        .onErrorResume(e -> {
+          knownObjects.remove(fileName);
+          return upload(inspected, file, userToken, publicUrl);
+        }));
+  }
+
+  private Mono<String> upload(InspectedFile inspected, MultipartFile file, String userToken, String publicUrl) {
+    String fileName = inspected.fileName();
+    String uploadUrl = String.format("%s/storage/v1/object/%s/%s", supabaseUrl, bucket, fileName);
+
+    return webClient.post()
+        .uri(uploadUrl)
+        .header("Authorization", "Bearer " + userToken)     // ✅ ใช้ user token แทน
+        // The sniffed type, not whatever the client claimed
+        .header("Content-Type", inspected.contentType())
+        .header("x-upsert", "false")
+        .contentLength(file.getSize())
+        // Second pass streams the part from its temp file instead of holding it in memory
+        .body(BodyInserters.fromResource(file.getResource()))
+        .retrieve()
+        .onStatus(HttpStatusCode::isError, res ->
+            res.bodyToMono(String.class).defaultIfEmpty("Upload failed").flatMap(msg ->
+                // Same name means same content: someone (maybe another instance) stored it already
+                isDuplicate(res.statusCode(), msg)
+                    ? Mono.empty()
+                    : Mono.error(new ResponseStatusException(
+                        HttpStatus.BAD_GATEWAY, "Supabase upload failed: " + msg))
+            )
+        )
+        .toBodilessEntity()
+        .doOnSuccess(ignored -> knownObjects.add(fileName))
+        .thenReturn(publicUrl);
+  }
+
+  private boolean isDuplicate(HttpStatusCode status, String body) {
+    // Storage API reports an existing object as 409, or as 400 with a "Duplicate" error body
+    return status.value() == HttpStatus.CONFLICT.value()
+        || (status.value() == HttpStatus.BAD_REQUEST.value() && body.contains("\"Duplicate\""));
+  }
+
+  private String extension(String contentType, String original) {
+    String known = switch (contentType != null ? contentType : "") {
+      case "image/jpeg" -> "jpg";
+      case "image/png" -> "png";
+      case "image/gif" -> "gif";
+      case "image/webp" -> "webp";
+      default -> null;
+    };
+    if (known != null) {
+      return known;
+    }
+    int dot = original != null ? original.lastIndexOf('.') : -1;
+    if (dot >= 0 && dot < original.length() - 1) {
+      String ext = original.substring(dot + 1).toLowerCase(Locale.ROOT);
+      if (ext.matches("[a-z0-9]{1,8}")) {
+        return ext;
+      }
+    }
+    return "bin";
+  }
+
+  /**
+   * Signed URL for uploading one image straight to the bucket, so the bytes never pass through us.
+   * Type and declared size are checked here; {@link #completeDirectUpload} checks the stored object.
+   */
+  public UploadUrlResponse createSignedUpload(String contentType, long size, String userToken, String uploaderId) {
+    requireServiceKey();
+    if (!IMAGE_CONTENT_TYPES.contains(contentType)) {
+      throw new BadRequestException("Only image files allowed");
+    }
+    if (size > MAX_FILE_SIZE) {
+      throw new BadRequestException("File size exceeds 5MB limit");
+    }
+
+    // Random name: the content hash isn't known until the bytes exist, and clients can't be trusted with it
+    String path = DIRECT_UPLOAD_PREFIX + uploaderId + "/" + UUID.randomUUID() + "." + extension(contentType, null);
+    String signUrl = String.format("%s/storage/v1/object/upload/sign/%s/%s", supabaseUrl, bucket, path);
 
     try {
-      webClient.put()
-          .uri(uploadUrl)
-          .header("Authorization", "Bearer " + userToken)     // ✅ ใช้ user token แทน
-          .header("Content-Type", file.getContentType() != null ? file.getContentType() : "application/octet-stream")
-          .bodyValue(bytes)
+      Map<?, ?> signed = webClient.post()
+          .uri(signUrl)
+          .header("Authorization", "Bearer " + userToken)
           .retrieve()
           .onStatus(HttpStatusCode::isError, res ->
-              res.bodyToMono(String.class).defaultIfEmpty("Upload failed").flatMap(msg ->
-                  Mono.error(new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Supabase upload failed: " + msg))
+              res.bodyToMono(String.class).defaultIfEmpty("Signing failed").flatMap(msg ->
+                  Mono.error(new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Supabase sign failed: " + msg))
               )
           )
+          .bodyToMono(Map.class)
+          .block();
+
+      // Supabase answers with a path relative to /storage/v1 that already carries the upload token
+      Object relativeUrl = signed != null ? signed.get("url") : null;
+      if (!(relativeUrl instanceof String url)) {
+        throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Supabase sign returned no URL");
+      }
+      return new UploadUrlResponse(path, supabaseUrl + "/storage/v1" + url, publicUrl(path));
+
+    } catch (ResponseStatusException ex) {
+      throw ex;
+    } catch (Exception ex) {
+      throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Unexpected error while signing upload", ex);
+    }
+  }
+
+  /**
+   * Confirms a direct upload by {@code uploaderId} landed and still meets the upload rules (the signed
+   * URL itself can't enforce them); objects that don't are deleted again. An accepted object is recorded
+   * like a proxied upload, so the purge leaves it alone while its trip is being saved. Returns the public URL.
+   */
+  public String completeDirectUpload(String path, String uploaderId) {
+    requireServiceKey();
+    String ownPrefix = DIRECT_UPLOAD_PREFIX + uploaderId + "/";
+    if (!path.startsWith(DIRECT_UPLOAD_PREFIX)) {
+      throw new BadRequestException("Invalid upload path");
+    }
+    if (!path.startsWith(ownPrefix)) {
+      throw new ForbiddenException("This upload belongs to another user");
+    }
+    if (!DIRECT_UPLOAD_NAME.matcher(path.substring(ownPrefix.length())).matches()) {
+      throw new BadRequestException("Invalid upload path");
+    }
+    String publicUrl = publicUrl(path);
+
+    HttpHeaders headers;
+    try {
+      headers = webClient.head()
+          .uri(publicUrl)
+          .retrieve()
+          // Storage answers a missing public object with 400 or 404 depending on version
+          .onStatus(status -> status.value() == 404 || status.value() == 400,
+              res -> Mono.error(new NotFoundException("Upload not found")))
+          .onStatus(HttpStatusCode::isError, res ->
+              Mono.error(new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Supabase lookup failed")))
           .toBodilessEntity()
+          .map(ResponseEntity::getHeaders)
           .block();
+    } catch (ApiException | ResponseStatusException ex) {
+      throw ex;
+    } catch (Exception ex) {
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Storage is unavailable, try again", ex);
+    }
 
-      // public URL สำหรับ access ไฟล์ได้ทันที
-      return String.format("%s/storage/v1/object/public/%s/%s", supabaseUrl, bucket, fileName);
+    long size = headers != null ? headers.getContentLength() : -1;
+    MediaType type = headers != null ? headers.getContentType() : null;
+    String contentType = type != null ? type.getType() + "/" + type.getSubtype() : null;
+    if (size < 0 || size > MAX_FILE_SIZE || !IMAGE_CONTENT_TYPES.contains(contentType)) {
+      deleteFiles(List.of(publicUrl));
+      throw new BadRequestException("Uploaded file is not an image of at most 5MB");
+    }
 
+    // The stored Content-Type is whatever the browser sent; sniff the real header with a ranged read
+    byte[] head;
+    try {
+      head = webClient.get()
+          .uri(publicUrl)
+          .header(HttpHeaders.RANGE, "bytes=0-" + (SNIFF_BYTES - 1))
+          .retrieve()
+          .onStatus(HttpStatusCode::isError, res ->
+              Mono.error(new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Supabase read failed")))
+          .bodyToFlux(DataBuffer.class)
+          // Storage that ignores Range sends the whole object: keep the first SNIFF_BYTES and cancel the
+          // rest, rather than buffering all of it (past the codec's in-memory limit) to throw it away
+          .as(body -> DataBufferUtils.join(DataBufferUtils.takeUntilByteCount(body, SNIFF_BYTES)))
+          .map(buffer -> {
+            try {
+              byte[] bytes = new byte[buffer.readableByteCount()];
+              buffer.read(bytes);
+              return bytes;
+            } finally {
+              DataBufferUtils.release(buffer);
+            }
+          })
+          .block(Duration.ofSeconds(uploadTimeoutSeconds));
     } catch (ResponseStatusException ex) {
       throw ex;
     } catch (Exception ex) {
-      throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Unexpected error while uploading to Supabase", ex);
+      // Timeout or no connection: storage is unreachable rather than misbehaving
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Storage is unavailable, try again", ex);
+    }
+    try {
+      checkDimensions(ImageInspector.inspect(new ByteArrayInputStream(head != null ? head : new byte[0])));
+    } catch (BadRequestException ex) {
+      deleteFiles(List.of(publicUrl));
+      throw ex;
+    } catch (IOException ex) {
+      throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Cannot read uploaded file", ex);
+    }
+    photoUploadRepository.recordUpload(publicUrl, LocalDateTime.now());
+    return publicUrl;
+  }
+
+  public boolean canDeleteFiles() {
+    return serviceRoleKey != null && !serviceRoleKey.isBlank();
+  }
+
+  private void requireServiceKey() {
+    if (!canDeleteFiles()) {
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Direct uploads are not configured");
+    }
+  }
+
+  private String publicUrl(String path) {
+    return String.format("%s/storage/v1/object/public/%s/%s", supabaseUrl, bucket, path);
+  }
+
+  /**
+   * Deletes files by public URL (used by TripPurgeService). Objects go in chunks with at most
+   * {@code delete-concurrency} requests in flight; URLs outside our bucket are ignored and missing
+   * objects are not an error, so retries are safe. Returns false if any chunk failed or there is no
+   * service key to delete with.
+   */
+  public boolean deleteFiles(Collection<String> publicUrls) {
+    return deleteFiles(publicUrls, Duration.ofMinutes(1));
+  }
+
+  // As above, but gives up (returning false) once timeout has passed; chunks already sent may still land
+  public boolean deleteFiles(Collection<String> publicUrls, Duration timeout) {
+    if (!canDeleteFiles()) {
+      logger.warn("supabase.serviceRoleKey is not set, leaving {} storage objects in place", publicUrls.size());
+      return false;
+    }
+
+    String publicPrefix = String.format("%s/storage/v1/object/public/%s/", supabaseUrl, bucket);
+    List<String> paths = publicUrls.stream()
+        .filter(url -> url != null && url.startsWith(publicPrefix))
+        .map(url -> url.substring(publicPrefix.length()))
+        .distinct()
+        .toList();
+    if (paths.isEmpty()) {
+      return true;
     }
+
+    List<List<String>> chunks = new ArrayList<>();
+    for (int i = 0; i < paths.size(); i += DELETE_CHUNK_SIZE) {
+      chunks.add(paths.subList(i, Math.min(i + DELETE_CHUNK_SIZE, paths.size())));
+    }
+
+    // Forget them before deleting so a concurrent upload of the same content re-uploads
+    paths.forEach(knownObjects::remove);
+
+    String deleteUrl = String.format("%s/storage/v1/object/%s", supabaseUrl, bucket);
+    Boolean allDeleted = Flux.fromIterable(chunks)
+        .flatMap(chunk -> webClient.method(HttpMethod.DELETE)
+            .uri(deleteUrl)
+            .header("Authorization", "Bearer " + serviceRoleKey)
+            .header("apikey", serviceRoleKey)
+            .bodyValue(Map.of("prefixes", chunk))
+            .retrieve()
+            .toBodilessEntity()
+            .thenReturn(true)
+            .onErrorResume(e -> {
+              logger.warn("Supabase delete of {} objects failed: {}", chunk.size(), e.getMessage());
+              return Mono.just(false);
+            }), deleteConcurrency)
+        .all(Boolean::booleanValue)
+        .timeout(timeout, Mono.fromSupplier(() -> {
+          logger.warn("Supabase delete of {} objects did not finish within {}", paths.size(), timeout);
+          return false;
+        }))
+        .block();
+    return Boolean.TRUE.equals(allDeleted);
+  }
+
+  private record InspectedFile(String fileName, String contentType) {
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Opaque position in a user's change feed: the {@code (changedAt, tripId)} of the last change the
+ * client has seen. Timestamps are kept at microsecond precision to match PostgreSQL, so a token
+ * round-trips to exactly the row it was issued from.
+ */
+public record SyncToken(LocalDateTime changedAt, long tripId) {
+
+    // Start of the feed: every current trip is a change, no tombstones are needed
+    public static final SyncToken INITIAL = new SyncToken(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+
+    public static SyncToken parse(String value) {
+        if (value == null || value.isBlank()) {
+            return INITIAL;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value.trim()), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('.');
+            long micros = Long.parseLong(decoded.substring(0, separator));
+            long tripId = Long.parseLong(decoded.substring(separator + 1));
+            LocalDateTime changedAt = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                    (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+            return new SyncToken(changedAt, tripId);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid sync token");
+        }
+    }
+
+    public boolean isInitial() {
+        return equals(INITIAL);
+    }
+
+    public String encode() {
+        LocalDateTime truncated = changedAt.truncatedTo(ChronoUnit.MICROS);
+        long micros = truncated.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + truncated.getNano() / 1_000;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((micros + "." + tripId).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,166 @@
+package com.techup.spring_demo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techup.spring_demo.entity.TripEvent;
+import com.techup.spring_demo.event.TripChanged;
+import com.techup.spring_demo.event.TripEventListener;
+import com.techup.spring_demo.exception.BadRequestException;
+import com.techup.spring_demo.repository.TripRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+@Service
+@RequiredArgsConstructor
+public class TripCountService implements TripEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TripCountService.class);
+
+    private final TripRepository tripRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, CachedCount> cache = new ConcurrentHashMap<>();
+
+    @Value("${trips.count.cache-ttl-seconds:60}")
+    private long cacheTtlSeconds;
+
+    @Value("${trips.count.cache-max-entries:10000}")
+    private int cacheMaxEntries;
+
+    // How the total for a page is computed, selected per request via ?count=
+    public enum CountMode {
+        EXACT, CACHED, ESTIMATE;
+
+        public static CountMode from(String value) {
+            if (value == null || value.isBlank()) {
+                return EXACT;
+            }
+            try {
+                return CountMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid count mode: " + value);
+            }
+        }
+    }
+
+    public long countAllTrips(CountMode mode) {
+        return switch (mode) {
+            case CACHED -> cached("all", tripRepository::count);
+            case ESTIMATE -> estimateTableRows();
+            default -> tripRepository.count();
+        };
+    }
+
+    public long countTripsByAuthor(Long authorId, CountMode mode) {
+        // Per-author counts are small and index-backed, so an estimate is not worth it
+        if (mode == CountMode.EXACT) {
+            return tripRepository.countByAuthorId(authorId);
+        }
+        return cached("author:" + authorId, () -> tripRepository.countByAuthorId(authorId));
+    }
+
+    public long countSearchTrips(String query, String[] tags, CountMode mode) {
+        return switch (mode) {
+            case CACHED -> cached("search:" + signature(query, tags),
+                    () -> tripRepository.countSearchTrips(query, tags));
+            case ESTIMATE -> estimateRows(TripRepository.SEARCH_TRIPS_WHERE, params(null, query, tags));
+            default -> tripRepository.countSearchTrips(query, tags);
+        };
+    }
+
+    public long countSearchMyTrips(Long authorId, String query, String[] tags, CountMode mode) {
+        return switch (mode) {
+            case CACHED -> cached("mine:" + authorId + ":" + signature(query, tags),
+                    () -> tripRepository.countSearchMyTrips(authorId, query, tags));
+            case ESTIMATE -> estimateRows(TripRepository.SEARCH_MY_TRIPS_WHERE, params(authorId, query, tags));
+            default -> tripRepository.countSearchMyTrips(authorId, query, tags);
+        };
+    }
+
+    // Creates and deletes change every total. An update keeps the overall and per-author totals but can
+    // move the trip in or out of any search (title, description and tags are searched)
+    @Override
+    public void onTripChanged(TripChanged event) {
+        if (event.type() != TripEvent.Type.UPDATED) {
+            cache.clear();
+            return;
+        }
+        String mine = "mine:" + event.authorId() + ":";
+        cache.keySet().removeIf(key -> key.startsWith("search:") || key.startsWith(mine));
+    }
+
+    private long cached(String key, LongSupplier loader) {
+        long now = System.nanoTime();
+        CachedCount entry = cache.get(key);
+        if (entry != null && entry.expiresAt() - now > 0) {
+            return entry.value();
+        }
+
+        long value = loader.getAsLong();
+        if (cache.size() >= cacheMaxEntries) {
+            cache.clear();
+        }
+        cache.put(key, new CachedCount(value, now + cacheTtlSeconds * 1_000_000_000L));
+        return value;
+    }
+
+    // reltuples counts every row, including soft-deleted trips waiting for TripPurgeService. Those are
+    // few (purged after trips.purge.grace-minutes) and indexed by idx_trips_deleted_at, so they are
+    // counted exactly and subtracted
+    private long estimateTableRows() {
+        Map<String, Object> row = jdbcTemplate.getJdbcTemplate().queryForMap(
+                "SELECT (SELECT reltuples::bigint FROM pg_class WHERE oid = 'trips'::regclass) AS total, " +
+                        "(SELECT COUNT(*) FROM trips WHERE deleted_at IS NOT NULL) AS deleted");
+        Number total = (Number) row.get("total");
+        // reltuples is -1 until the table has been vacuumed/analyzed at least once
+        if (total == null || total.longValue() < 0) {
+            return cached("all", tripRepository::count);
+        }
+        return Math.max(0, total.longValue() - ((Number) row.get("deleted")).longValue());
+    }
+
+    private long estimateRows(String whereClause, MapSqlParameterSource params) {
+        try {
+            String plan = jdbcTemplate.queryForObject(
+                    "EXPLAIN (FORMAT JSON) SELECT 1 FROM trips t " + whereClause, params, String.class);
+            JsonNode root = objectMapper.readTree(plan);
+            return root.get(0).get("Plan").get("Plan Rows").asLong();
+        } catch (Exception e) {
+            logger.warn("Falling back to exact count, planner estimate failed: {}", e.getMessage());
+            return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM trips t " + whereClause, params, Long.class);
+        }
+    }
+
+    private MapSqlParameterSource params(Long authorId, String query, String[] tags) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", query, Types.VARCHAR)
+                .addValue("tags", tags, Types.ARRAY);
+        if (authorId != null) {
+            params.addValue("authorId", authorId);
+        }
+        return params;
+    }
+
+    private String signature(String query, String[] tags) {
+        String[] sortedTags = tags != null ? tags.clone() : new String[0];
+        Arrays.sort(sortedTags);
+        String normalizedQuery = query != null ? query.toLowerCase(Locale.ROOT) : "";
+        return normalizedQuery + "|" + String.join(",", sortedTags);
+    }
+
+    private record CachedCount(long value, long expiresAt) {
+    }
+}
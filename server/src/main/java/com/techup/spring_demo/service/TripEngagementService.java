@@ -0,0 +1,93 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.entity.TripEvent;
+import com.techup.spring_demo.event.TripChanged;
+import com.techup.spring_demo.event.TripEventListener;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind view counters. Views are accumulated in memory and flushed to
+ * {@code trips.view_count} as one batched UPDATE per interval, so reading a trip never writes a row.
+ * A trip's counter is created on its first view and kept until the trip is deleted: removing idle
+ * counters during a flush would race a view that already holds the counter and lose it.
+ */
+@Service
+@RequiredArgsConstructor
+public class TripEngagementService implements TripEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TripEngagementService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+
+    public void recordView(Long tripId) {
+        pendingViews.computeIfAbsent(tripId, id -> new LongAdder()).increment();
+    }
+
+    // Views recorded since the last flush, so responses are not behind by a whole interval
+    public long pendingViews(Long tripId) {
+        LongAdder adder = pendingViews.get(tripId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${trips.engagement.flush-interval-ms:10000}")
+    public void flush() {
+        List<Long> ids = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+
+        for (Map.Entry<Long, LongAdder> entry : pendingViews.entrySet()) {
+            // A view racing this lands in either this delta or the next one
+            long delta = entry.getValue().sumThenReset();
+            if (delta == 0) {
+                continue;
+            }
+            ids.add(entry.getKey());
+            deltas.add(delta);
+        }
+
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.update(
+                    "UPDATE trips t SET view_count = t.view_count + d.delta " +
+                            "FROM unnest(?::bigint[], ?::bigint[]) AS d(id, delta) " +
+                            "WHERE t.id = d.id",
+                    ids.toArray(new Long[0]),
+                    deltas.toArray(new Long[0]));
+            logger.debug("Flushed view counts for {} trips", ids.size());
+        } catch (Exception e) {
+            // Put the deltas back so the next flush retries them
+            logger.warn("Failed to flush view counts for {} trips: {}", ids.size(), e.getMessage());
+            for (int i = 0; i < ids.size(); i++) {
+                pendingViews.computeIfAbsent(ids.get(i), id -> new LongAdder()).add(deltas.get(i));
+            }
+        }
+    }
+
+    // Views of a deleted trip have no row left to count them
+    @Override
+    public void onTripChanged(TripChanged event) {
+        if (event.type() == TripEvent.Type.DELETED) {
+            pendingViews.remove(event.tripId());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
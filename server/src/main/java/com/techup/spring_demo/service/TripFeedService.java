@@ -0,0 +1,236 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.entity.TripEvent;
+import com.techup.spring_demo.event.TripChanged;
+import com.techup.spring_demo.event.TripEventListener;
+import com.techup.spring_demo.repository.TripRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Materialized trending feed. The ranking is rebuilt on a schedule from a compact projection of
+ * recent trips and patched in place after writes, so serving a page is an array slice.
+ *
+ * <p>Scores are anchored to creation time ({@code log2(weight) + createdAt / halfLife}): a trip has to
+ * double its weight every half-life to keep its rank, and existing scores never need recomputing as
+ * time passes, which is what makes incremental inserts consistent with the last full refresh.
+ */
+@Service
+@RequiredArgsConstructor
+public class TripFeedService implements TripEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TripFeedService.class);
+
+    private static final double TAG_WEIGHT = 0.5;
+    private static final double PROVINCE_WEIGHT = 0.25;
+
+    private final TripRepository tripRepository;
+
+    @Value("${trips.feed.window-days:30}")
+    private int windowDays;
+
+    @Value("${trips.feed.max-size:5000}")
+    private int maxSize;
+
+    @Value("${trips.feed.half-life-hours:24}")
+    private double halfLifeHours;
+
+    private volatile Feed feed = Feed.EMPTY;
+
+    @Scheduled(fixedDelayString = "${trips.feed.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        long start = System.currentTimeMillis();
+        LocalDateTime since = LocalDateTime.now().minusDays(windowDays);
+        List<Object[]> rows = tripRepository.findFeedCandidates(since, PageRequest.of(0, maxSize));
+
+        List<Candidate> candidates = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            candidates.add(new Candidate(
+                    (Long) row[0],
+                    toTags(row[1]),
+                    (String) row[2],
+                    row[3] != null ? (Long) row[3] : 0L,
+                    (LocalDateTime) row[4]));
+        }
+
+        // Average views per trip for each tag/province in the window: how "hot" a topic is right now
+        Map<String, double[]> tagTotals = new HashMap<>();
+        Map<String, double[]> provinceTotals = new HashMap<>();
+        for (Candidate candidate : candidates) {
+            for (String tag : candidate.tags()) {
+                accumulate(tagTotals, tag, candidate.views());
+            }
+            if (candidate.province() != null) {
+                accumulate(provinceTotals, candidate.province(), candidate.views());
+            }
+        }
+        Map<String, Double> tagHeat = averages(tagTotals);
+        Map<String, Double> provinceHeat = averages(provinceTotals);
+
+        long[] ids = new long[candidates.size()];
+        double[] scores = new double[candidates.size()];
+        Integer[] order = new Integer[candidates.size()];
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate candidate = candidates.get(i);
+            ids[i] = candidate.id();
+            scores[i] = score(candidate, tagHeat, provinceHeat);
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> scores[i]).reversed());
+
+        long[] rankedIds = new long[ids.length];
+        double[] rankedScores = new double[ids.length];
+        for (int rank = 0; rank < order.length; rank++) {
+            rankedIds[rank] = ids[order[rank]];
+            rankedScores[rank] = scores[order[rank]];
+        }
+
+        feed = new Feed(rankedIds, rankedScores, tagHeat, provinceHeat);
+        logger.debug("Materialized trending feed with {} trips in {} ms",
+                rankedIds.length, System.currentTimeMillis() - start);
+    }
+
+    public FeedPage page(int page, int size) {
+        Feed current = feed;
+        int total = current.ids().length;
+        int from = (int) Math.min((long) page * size, total);
+        int to = (int) Math.min((long) from + size, total);
+
+        List<Long> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(current.ids()[i]);
+        }
+        return new FeedPage(ids, total);
+    }
+
+    @Override
+    public void onTripChanged(TripChanged event) {
+        if (event.type() == TripEvent.Type.DELETED) {
+            remove(event.tripId());
+        } else {
+            upsert(new Candidate(event.tripId(), event.tags(), event.province(), event.viewCount(),
+                    event.tripCreatedAt()));
+        }
+    }
+
+    // Re-ranks a single trip against the current topic heat; replaying the same event is harmless
+    private synchronized void upsert(Candidate candidate) {
+        Feed current = feed;
+        if (candidate.createdAt() == null
+                || candidate.createdAt().isBefore(LocalDateTime.now().minusDays(windowDays))) {
+            remove(candidate.id());
+            return;
+        }
+
+        double score = score(candidate, current.tagHeat(), current.provinceHeat());
+        Feed withoutTrip = without(current, candidate.id());
+
+        // First position whose score is lower than ours (scores are sorted descending)
+        double[] scores = withoutTrip.scores();
+        int low = 0;
+        int high = scores.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (scores[mid] >= score) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        int length = Math.min(scores.length + 1, maxSize);
+        if (low >= length) {
+            feed = withoutTrip;
+            return;
+        }
+        long[] ids = new long[length];
+        double[] newScores = new double[length];
+        System.arraycopy(withoutTrip.ids(), 0, ids, 0, low);
+        System.arraycopy(scores, 0, newScores, 0, low);
+        ids[low] = candidate.id();
+        newScores[low] = score;
+        System.arraycopy(withoutTrip.ids(), low, ids, low + 1, length - low - 1);
+        System.arraycopy(scores, low, newScores, low + 1, length - low - 1);
+
+        feed = new Feed(ids, newScores, current.tagHeat(), current.provinceHeat());
+    }
+
+    public synchronized void remove(Long tripId) {
+        feed = without(feed, tripId);
+    }
+
+    private Feed without(Feed current, long tripId) {
+        long[] ids = current.ids();
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == tripId) {
+                long[] newIds = new long[ids.length - 1];
+                double[] newScores = new double[ids.length - 1];
+                System.arraycopy(ids, 0, newIds, 0, i);
+                System.arraycopy(current.scores(), 0, newScores, 0, i);
+                System.arraycopy(ids, i + 1, newIds, i, ids.length - i - 1);
+                System.arraycopy(current.scores(), i + 1, newScores, i, ids.length - i - 1);
+                return new Feed(newIds, newScores, current.tagHeat(), current.provinceHeat());
+            }
+        }
+        return current;
+    }
+
+    private double score(Candidate candidate, Map<String, Double> tagHeat, Map<String, Double> provinceHeat) {
+        double hottestTag = 0;
+        for (String tag : candidate.tags()) {
+            hottestTag = Math.max(hottestTag, tagHeat.getOrDefault(tag, 0.0));
+        }
+        double province = candidate.province() != null ? provinceHeat.getOrDefault(candidate.province(), 0.0) : 0;
+
+        double weight = 1 + candidate.views() + TAG_WEIGHT * hottestTag + PROVINCE_WEIGHT * province;
+        double createdAtHours = candidate.createdAt().atZone(ZoneId.systemDefault()).toEpochSecond() / 3600.0;
+        return Math.log(weight) / Math.log(2) + createdAtHours / halfLifeHours;
+    }
+
+    private void accumulate(Map<String, double[]> totals, String key, long views) {
+        double[] total = totals.computeIfAbsent(key, ignored -> new double[2]);
+        total[0] += views;
+        total[1] += 1;
+    }
+
+    private Map<String, Double> averages(Map<String, double[]> totals) {
+        Map<String, Double> averages = new HashMap<>(totals.size());
+        totals.forEach((key, total) -> averages.put(key, total[0] / total[1]));
+        return averages;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> toTags(Object value) {
+        if (value instanceof List<?> list) {
+            return (List<String>) list;
+        }
+        if (value instanceof String[] array) {
+            return List.of(array);
+        }
+        return List.of();
+    }
+
+    public record FeedPage(List<Long> ids, long total) {
+    }
+
+    private record Candidate(Long id, List<String> tags, String province, long views, LocalDateTime createdAt) {
+    }
+
+    private record Feed(long[] ids, double[] scores, Map<String, Double> tagHeat, Map<String, Double> provinceHeat) {
+        static final Feed EMPTY = new Feed(new long[0], new double[0], Map.of(), Map.of());
+    }
+}
@@ -0,0 +1,55 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.exception.BadRequestException;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Parsed {@code ?fields=} for trip responses. {@code fields=summary} is the card view: id, title,
+ * cover photo, tags and province. When the selection needs neither description nor author, list
+ * endpoints read a column projection instead of whole entities.
+ */
+public record TripFieldSelection(Set<String> fields, boolean coverOnly) {
+
+    public static final TripFieldSelection ALL = new TripFieldSelection(Set.of(), false);
+
+    public static final Set<String> TRIP_FIELDS = Set.of(
+            "id", "title", "description", "photos", "tags", "latitude", "longitude", "province",
+            "authorId", "authorName", "viewCount", "createdAt", "updatedAt", "version");
+
+    private static final Set<String> SUMMARY_FIELDS = Set.of("id", "title", "photos", "tags", "province");
+
+    // Fields that live outside TripRepository.TRIP_PROJECTION_COLUMNS
+    private static final Set<String> ENTITY_ONLY_FIELDS = Set.of("description", "authorName", "version");
+
+    public static TripFieldSelection parse(String value) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+        if ("summary".equalsIgnoreCase(value.trim())) {
+            return new TripFieldSelection(SUMMARY_FIELDS, true);
+        }
+
+        Set<String> fields = Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        for (String field : fields) {
+            if (!TRIP_FIELDS.contains(field)) {
+                throw new BadRequestException("Unknown field: " + field);
+            }
+        }
+        return new TripFieldSelection(Set.copyOf(fields), false);
+    }
+
+    public boolean isAll() {
+        return fields.isEmpty();
+    }
+
+    public boolean isProjectable() {
+        return !isAll() && fields.stream().noneMatch(ENTITY_ONLY_FIELDS::contains);
+    }
+}
@@ -0,0 +1,118 @@
+package com.techup.spring_demo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.techup.spring_demo.entity.Trip;
+import com.techup.spring_demo.entity.type.InternedStringArrayType;
+import com.techup.spring_demo.entity.type.StringArrayType;
+import com.techup.spring_demo.exception.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A JSON merge patch (RFC 7396) for {@code PATCH /api/trips/{id}}: members present in the document
+ * replace the field, {@code null} clears it and absent members are left alone. Arrays are replaced as
+ * a whole, as the RFC requires; a null array clears it to empty.
+ */
+public final class TripPatch {
+
+    private final Map<String, Object> values;
+
+    private TripPatch(Map<String, Object> values) {
+        this.values = values;
+    }
+
+    public static TripPatch parse(JsonNode document) {
+        if (document == null || !document.isObject()) {
+            throw new BadRequestException("Patch must be a JSON object");
+        }
+        // HashMap, not Map.of: null is a value here ("clear this field")
+        Map<String, Object> values = new HashMap<>();
+        document.properties().forEach(member -> {
+            String field = member.getKey();
+            JsonNode node = member.getValue();
+            Object value = switch (field) {
+                case "title" -> {
+                    if (!node.isTextual() || node.asText().isBlank()) {
+                        throw new BadRequestException("Title is required");
+                    }
+                    yield node.asText();
+                }
+                case "description", "province" -> text(field, node);
+                case "latitude", "longitude" -> number(field, node);
+                case "photos" -> StringArrayType.immutableCopy(strings(field, node));
+                case "tags" -> InternedStringArrayType.internedCopy(strings(field, node));
+                default -> throw new BadRequestException("Unknown or read-only field: " + field);
+            };
+            values.put(field, value);
+        });
+        return new TripPatch(values);
+    }
+
+    // Sets only the fields whose value actually differs and reports whether any did
+    public boolean applyTo(Trip trip) {
+        boolean changed = apply("title", trip.getTitle(), trip::setTitle);
+        changed |= apply("description", trip.getDescription(), trip::setDescription);
+        changed |= apply("photos", trip.getPhotos(), trip::setPhotos);
+        changed |= apply("tags", trip.getTags(), trip::setTags);
+        changed |= apply("latitude", trip.getLatitude(), trip::setLatitude);
+        changed |= apply("longitude", trip.getLongitude(), trip::setLongitude);
+        changed |= apply("province", trip.getProvince(), trip::setProvince);
+        return changed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> boolean apply(String field, T current, Consumer<T> setter) {
+        if (!values.containsKey(field)) {
+            return false;
+        }
+        T value = (T) values.get(field);
+        if (Objects.equals(current, value)) {
+            return false;
+        }
+        setter.accept(value);
+        return true;
+    }
+
+    private static String text(String field, JsonNode node) {
+        if (node.isNull()) {
+            return null;
+        }
+        if (!node.isTextual()) {
+            throw new BadRequestException(field + " must be a string");
+        }
+        return node.asText();
+    }
+
+    private static Double number(String field, JsonNode node) {
+        if (node.isNull()) {
+            return null;
+        }
+        if (!node.isNumber()) {
+            throw new BadRequestException(field + " must be a number");
+        }
+        return node.asDouble();
+    }
+
+    private static List<String> strings(String field, JsonNode node) {
+        if (node.isNull()) {
+            return Collections.emptyList();
+        }
+        if (!node.isArray()) {
+            throw new BadRequestException(field + " must be an array of strings");
+        }
+        List<String> list = new ArrayList<>(node.size());
+        for (JsonNode element : node) {
+            if (!element.isTextual()) {
+                throw new BadRequestException(field + " must be an array of strings");
+            }
+            list.add(element.asText());
+        }
+        return list;
+    }
+}
@@ -0,0 +1,142 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.repository.PhotoUploadRepository;
+import com.techup.spring_demo.repository.TripRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hard-deletes soft-deleted trips in batches once their grace period is over. Photos go first and
+ * only if no other trip still points at them and no upload handed their URL out recently (uploads
+ * are content-addressed, so a new trip may be about to reuse one); a batch whose storage delete
+ * fails keeps its rows, so the next run retries it instead of orphaning objects.
+ */
+@Service
+@RequiredArgsConstructor
+public class TripPurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TripPurgeService.class);
+
+    private final TripRepository tripRepository;
+    private final SupabaseStorageService supabaseStorageService;
+    private final PhotoUploadRepository photoUploadRepository;
+
+    @Value("${trips.purge.grace-minutes:10}")
+    private long graceMinutes;
+
+    // How long after an upload its URL is protected from purging (time to finish and save the trip)
+    @Value("${trips.purge.upload-grace-hours:24}")
+    private long uploadGraceHours;
+
+    @Value("${trips.purge.batch-size:100}")
+    private int batchSize;
+
+    @Value("${trips.purge.max-batches-per-run:10}")
+    private int maxBatchesPerRun;
+
+    // Bounds the storage calls of one run, so a slow bucket delays the next run rather than piling up
+    @Value("${trips.purge.max-delete-seconds-per-run:120}")
+    private long maxDeleteSecondsPerRun;
+
+    private boolean warnedNoServiceKey;
+
+    @Scheduled(fixedDelayString = "${trips.purge.interval-ms:60000}")
+    public void purge() {
+        // Hard-deleting without being able to delete the photos would orphan them in the bucket, so
+        // soft-deleted trips (already invisible) wait until supabase.serviceRoleKey is configured
+        if (!supabaseStorageService.canDeleteFiles()) {
+            if (!warnedNoServiceKey) {
+                logger.warn("supabase.serviceRoleKey is not set, soft-deleted trips are not purged");
+                warnedNoServiceKey = true;
+            }
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minusMinutes(graceMinutes);
+        LocalDateTime uploadedAfter = LocalDateTime.now().minusHours(uploadGraceHours);
+        photoUploadRepository.deleteOlderThan(uploadedAfter);
+        long deadline = System.nanoTime() + Duration.ofSeconds(maxDeleteSecondsPerRun).toNanos();
+        int purged = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Duration remaining = Duration.ofNanos(deadline - System.nanoTime());
+            if (remaining.isNegative() || remaining.isZero()) {
+                logger.info("Purge run out of storage time after {} trips, continuing next run", purged);
+                break;
+            }
+            List<Object[]> rows = tripRepository.findPurgeCandidates(before, uploadedAfter, batchSize);
+            if (rows.isEmpty() || !purgeBatch(rows, uploadedAfter, remaining)) {
+                break;
+            }
+            purged += rows.size();
+            if (rows.size() < batchSize) {
+                break;
+            }
+        }
+        if (purged > 0) {
+            logger.info("Purged {} soft-deleted trips", purged);
+        }
+    }
+
+    private boolean purgeBatch(List<Object[]> rows, LocalDateTime uploadedAfter, Duration deleteTimeout) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        Set<String> photos = new LinkedHashSet<>();
+        for (Object[] row : rows) {
+            ids.add(((Number) row[0]).longValue());
+            photos.addAll(toStringList(row[1]));
+        }
+
+        if (!photos.isEmpty()) {
+            photos.removeAll(tripRepository.findReferencedPhotos(
+                    photos.toArray(new String[0]), ids.toArray(new Long[0])));
+            // An upload of one of these may have landed since the candidates were read; keep the
+            // whole batch then, the next run skips those trips until the upload grace is over
+            if (!photoUploadRepository.findUploadedSince(photos.toArray(new String[0]), uploadedAfter).isEmpty()) {
+                return false;
+            }
+            if (!supabaseStorageService.deleteFiles(photos, deleteTimeout)) {
+                logger.warn("Keeping {} soft-deleted trips until their photos can be removed", ids.size());
+                return false;
+            }
+        }
+
+        tripRepository.hardDeleteByIds(ids);
+        return true;
+    }
+
+    private List<String> toStringList(Object value) {
+        try {
+            if (value instanceof Array array) {
+                value = array.getArray();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot read array column", e);
+        }
+        List<String> list = new ArrayList<>();
+        if (value instanceof Object[] array) {
+            for (Object element : array) {
+                if (element != null) {
+                    list.add(element.toString());
+                }
+            }
+        } else if (value instanceof List<?> elements) {
+            for (Object element : elements) {
+                if (element != null) {
+                    list.add(element.toString());
+                }
+            }
+        }
+        return list;
+    }
+}
@@ -1,22 +1,45 @@
 package com.techup.spring_demo.service;
 
+import com.techup.spring_demo.dto.TripBatchResponse;
+import com.techup.spring_demo.dto.TripChangesResponse;
 import com.techup.spring_demo.dto.TripPageResponse;
 import com.techup.spring_demo.dto.TripRequest;
 import com.techup.spring_demo.dto.TripResponse;
 import com.techup.spring_demo.entity.Trip;
+import com.techup.spring_demo.entity.TripEvent;
+import com.techup.spring_demo.entity.type.InternedStringArrayType;
+import com.techup.spring_demo.entity.type.StringArrayType;
+import com.techup.spring_demo.exception.ApiException;
+import com.techup.spring_demo.exception.BadRequestException;
+import com.techup.spring_demo.exception.ConflictException;
+import com.techup.spring_demo.exception.ForbiddenException;
+import com.techup.spring_demo.exception.NotFoundException;
+import com.techup.spring_demo.repository.TripEventRepository;
 import com.techup.spring_demo.repository.TripRepository;
 import com.techup.spring_demo.repository.UserRepository;
+import com.techup.spring_demo.service.TripCountService.CountMode;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,7 +49,44 @@ public class TripService {
     private static final Logger logger = LoggerFactory.getLogger(TripService.class);
 
     private final TripRepository tripRepository;
+    private final TripEventRepository tripEventRepository;
     private final UserRepository userRepository;
+    private final TripCountService tripCountService;
+    private final TripEngagementService tripEngagementService;
+    private final TripFeedService tripFeedService;
+    private final RequestCoalescer requestCoalescer;
+
+    @Value("${trips.batch.max-size:50}")
+    private int maxBatchSize;
+
+    @Value("${trips.changes.default-limit:100}")
+    private int defaultChangesLimit;
+
+    @Value("${trips.changes.max-limit:500}")
+    private int maxChangesLimit;
+
+    @Value("${trips.changes.settle-ms:2000}")
+    private long changesSettleMillis;
+
+    // Tombstones live in trip_events, so a token is only good for as long as those rows are kept
+    @Value("${trips.events.retention-days:7}")
+    private int eventRetentionDays;
+
+    // Ordering for the public feed, selected via ?sort= (TRENDING only applies without filters)
+    public enum SortOrder {
+        LATEST, POPULAR, TRENDING;
+
+        public static SortOrder from(String value) {
+            if (value == null || value.isBlank()) {
+                return LATEST;
+            }
+            try {
+                return SortOrder.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid sort: " + value);
+            }
+        }
+    }
 
     public List<TripResponse> getTripsByAuthor(Long authorId) {
         List<Trip> trips = tripRepository.findByAuthorId(authorId);
@@ -39,137 +99,336 @@ public class TripService {
     public TripResponse createTrip(TripRequest request, Long authorId) {
         // Verify authorId is not null
         if (authorId == null) {
-            throw new RuntimeException("User ID is required");
+            throw new BadRequestException("User ID is required");
         }
 
         // Verify user exists
         userRepository.findById(authorId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new NotFoundException("User not found"));
 
         Trip trip = new Trip();
         trip.setTitle(request.getTitle());
         trip.setDescription(request.getDescription());
-        trip.setPhotos(request.getPhotos() != null ? request.getPhotos() : new ArrayList<>());
-        trip.setTags(request.getTags() != null ? request.getTags() : new ArrayList<>());
+        trip.setPhotos(request.getPhotos());
+        trip.setTags(request.getTags());
         trip.setLatitude(request.getLatitude());
         trip.setLongitude(request.getLongitude());
         trip.setProvince(request.getProvince());
         trip.setAuthorId(authorId);
 
         Trip savedTrip = tripRepository.save(trip);
+        // Caches, suggestions and the feed pick this up from the outbox once it commits
+        tripEventRepository.save(TripEvent.of(TripEvent.Type.CREATED, savedTrip));
         return mapToResponse(savedTrip);
     }
 
+    // One conditional UPDATE checks ownership and the client's If-Match version and writes the row; the
+    // trip is read back by primary key only once the write went through
+    @Transactional
+    public TripResponse updateTrip(Long tripId, TripRequest request, Long authorId, TripVersionMatch ifMatch) {
+        int updated = tripRepository.updateIfCurrent(
+                        tripId,
+                        authorId,
+                        ifMatch.any(),
+                        ifMatch.versionArray(),
+                        request.getTitle(),
+                        request.getDescription(),
+                        request.getPhotos() != null,
+                        StringArrayType.immutableCopy(request.getPhotos()).toArray(new String[0]),
+                        request.getTags() != null,
+                        InternedStringArrayType.internedCopy(request.getTags()).toArray(new String[0]),
+                        request.getLatitude(),
+                        request.getLongitude(),
+                        request.getProvince(),
+                        LocalDateTime.now());
+        if (updated == 0) {
+            throw rejectedWrite(tripId, authorId, "edit");
+        }
+        Trip trip = tripRepository.findById(tripId).orElseThrow(() -> NotFoundException.TRIP_NOT_FOUND);
+
+        tripEventRepository.save(TripEvent.of(TripEvent.Type.UPDATED, trip));
+        return mapToResponse(trip);
+    }
+
+    // JSON merge patch: only the columns whose value changed are written (Trip is @DynamicUpdate), and a
+    // patch that changes nothing writes nothing, not even updated_at or an outbox event. The patch needs
+    // the current row, so this stays read-then-write; @Version makes the write fail if the row moved on.
     @Transactional
-    public TripResponse updateTrip(Long tripId, TripRequest request, Long authorId) {
+    public TripResponse patchTrip(Long tripId, TripPatch patch, Long authorId, TripVersionMatch ifMatch) {
         Trip trip = tripRepository.findById(tripId)
-                .orElseThrow(() -> new RuntimeException("Trip not found"));
+                .orElseThrow(() -> NotFoundException.TRIP_NOT_FOUND);
 
-        // Check ownership
         if (!trip.getAuthorId().equals(authorId)) {
-            logger.warn("Unauthorized update attempt: User {} tried to update trip {} owned by {}",
+            logger.warn("Unauthorized patch attempt: User {} tried to update trip {} owned by {}",
                     authorId, tripId, trip.getAuthorId());
-            throw new RuntimeException("You don't have permission to edit this trip");
+            throw new ForbiddenException("You don't have permission to edit this trip");
         }
-
-        trip.setTitle(request.getTitle());
-        trip.setDescription(request.getDescription());
-        if (request.getPhotos() != null) {
-            trip.setPhotos(request.getPhotos());
-        }
-        if (request.getTags() != null) {
-            trip.setTags(request.getTags());
+        if (!ifMatch.matches(trip.getVersion())) {
+            throw ConflictException.TRIP_MODIFIED;
         }
-        trip.setLatitude(request.getLatitude());
-        trip.setLongitude(request.getLongitude());
-        trip.setProvince(request.getProvince());
 
-        Trip updatedTrip = tripRepository.save(trip);
-        return mapToResponse(updatedTrip);
+        if (patch.applyTo(trip)) {
+            // Flushed here so a lost race surfaces as 409 and the response carries the new version
+            tripRepository.saveAndFlush(trip);
+            tripEventRepository.save(TripEvent.of(TripEvent.Type.UPDATED, trip));
+        }
+        return mapToResponse(trip);
     }
 
+    // Soft delete: the row disappears from every query now, TripPurgeService removes it and its photos later
     @Transactional
-    public void deleteTrip(Long tripId, Long authorId) {
-        Trip trip = tripRepository.findById(tripId)
-                .orElseThrow(() -> new RuntimeException("Trip not found"));
+    public void deleteTrip(Long tripId, Long authorId, TripVersionMatch ifMatch) {
+        int deleted = tripRepository.softDeleteIfCurrent(
+                tripId, authorId, ifMatch.any(), ifMatch.versionArray(), LocalDateTime.now());
+        if (deleted == 0) {
+            throw rejectedWrite(tripId, authorId, "delete");
+        }
+        Trip trip = tripRepository.findByIdIncludingDeleted(tripId).orElseThrow(() -> NotFoundException.TRIP_NOT_FOUND);
+        tripEventRepository.save(TripEvent.of(TripEvent.Type.DELETED, trip));
+    }
 
-        // Check ownership
+    // A conditional write matched no row; only now is the trip read, to tell the client why
+    private ApiException rejectedWrite(Long tripId, Long authorId, String action) {
+        Trip trip = tripRepository.findById(tripId).orElse(null);
+        if (trip == null) {
+            return NotFoundException.TRIP_NOT_FOUND;
+        }
         if (!trip.getAuthorId().equals(authorId)) {
-            logger.warn("Unauthorized delete attempt: User {} tried to delete trip {} owned by {}",
-                    authorId, tripId, trip.getAuthorId());
-            throw new RuntimeException("You don't have permission to delete this trip");
+            logger.warn("Unauthorized {} attempt: User {} tried to {} trip {} owned by {}",
+                    action, authorId, action, tripId, trip.getAuthorId());
+            return new ForbiddenException("You don't have permission to " + action + " this trip");
         }
-
-        tripRepository.delete(trip);
+        return ConflictException.TRIP_MODIFIED;
     }
 
     // Public API methods
-    public TripPageResponse getAllTrips(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Trip> tripPage = tripRepository.findAll(pageable);
+    // Identical concurrent public reads share one query via RequestCoalescer
+    public TripPageResponse getAllTrips(int page, int size, SortOrder sortOrder, CountMode countMode) {
+        return requestCoalescer.coalesce("all:" + sortOrder + ":" + countMode + ":" + page + ":" + size,
+                () -> loadAllTrips(page, size, sortOrder, countMode));
+    }
 
-        List<TripResponse> content = tripPage.getContent().stream()
+    private TripPageResponse loadAllTrips(int page, int size, SortOrder sortOrder, CountMode countMode) {
+        if (sortOrder == SortOrder.TRENDING) {
+            return getTrendingTrips(page, size);
+        }
+
+        Pageable pageable = sortOrder == SortOrder.POPULAR
+                ? PageRequest.of(page, size, Sort.by(Sort.Order.desc("viewCount"), Sort.Order.desc("createdAt")))
+                : PageRequest.of(page, size, Sort.by(Sort.Order.desc("createdAt")));
+
+        if (countMode == CountMode.EXACT) {
+            return toPageResponse(tripRepository.findAll(pageable));
+        }
+
+        Slice<Trip> tripSlice = tripRepository.findSliceBy(pageable);
+        return toPageResponse(tripSlice.map(this::mapToResponse),
+                tripCountService.countAllTrips(countMode), countMode);
+    }
+
+    // Served from the materialized ranking: one id slice plus one IN query for the page
+    private TripPageResponse getTrendingTrips(int page, int size) {
+        TripFeedService.FeedPage feedPage = tripFeedService.page(page, size);
+
+        Map<Long, Trip> tripsById = tripRepository.findByIdIn(feedPage.ids()).stream()
+                .collect(Collectors.toMap(Trip::getId, Function.identity()));
+        List<TripResponse> content = feedPage.ids().stream()
+                .map(tripsById::get)
+                .filter(Objects::nonNull)
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
 
+        int totalPages = size == 0 ? 1 : (int) Math.ceil((double) feedPage.total() / (double) size);
         return new TripPageResponse(
                 content,
-                tripPage.getNumber(),
-                tripPage.getSize(),
-                tripPage.getTotalElements(),
-                tripPage.getTotalPages(),
-                tripPage.hasNext(),
-                tripPage.hasPrevious());
+                page,
+                size,
+                feedPage.total(),
+                totalPages,
+                (long) (page + 1) * size < feedPage.total(),
+                page > 0,
+                CountMode.EXACT.name());
+    }
+
+    public TripPageResponse searchTrips(String query, List<String> tags, int page, int size, SortOrder sortOrder,
+            CountMode countMode) {
+        return requestCoalescer.coalesce(
+                "search:" + searchKey(query, tags) + ":" + sortOrder + ":" + countMode + ":" + page + ":" + size,
+                () -> loadSearchTrips(query, tags, page, size, sortOrder, countMode));
     }
 
-    public TripPageResponse searchTrips(String query, List<String> tags, int page, int size) {
+    private TripPageResponse loadSearchTrips(String query, List<String> tags, int page, int size,
+            SortOrder sortOrder, CountMode countMode) {
         Pageable pageable = PageRequest.of(page, size);
 
         String cleanedQuery = (query != null && !query.isBlank()) ? query : null;
         String[] tagArray = (tags != null && !tags.isEmpty()) ? tags.toArray(new String[0]) : new String[0];
 
-        Page<Trip> tripPage = tripRepository.searchTrips(cleanedQuery, tagArray, pageable);
+        if (countMode == CountMode.EXACT) {
+            return toPageResponse(tripRepository.searchTrips(cleanedQuery, tagArray, sortOrder.name(), pageable));
+        }
 
-        List<TripResponse> content = tripPage.getContent().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        Slice<Trip> tripSlice = tripRepository.searchTripsSlice(cleanedQuery, tagArray, sortOrder.name(), pageable);
+        return toPageResponse(tripSlice.map(this::mapToResponse),
+                tripCountService.countSearchTrips(cleanedQuery, tagArray, countMode), countMode);
+    }
 
-        return new TripPageResponse(
-                content,
-                tripPage.getNumber(),
-                tripPage.getSize(),
-                tripPage.getTotalElements(),
-                tripPage.getTotalPages(),
-                tripPage.hasNext(),
-                tripPage.hasPrevious());
+    public TripPageResponse getTripsByAuthor(Long authorId, int page, int size, CountMode countMode) {
+        Pageable pageable = PageRequest.of(page, size);
+
+        if (countMode == CountMode.EXACT) {
+            return toPageResponse(tripRepository.findByAuthorId(authorId, pageable));
+        }
+
+        Slice<Trip> tripSlice = tripRepository.findSliceByAuthorId(authorId, pageable);
+        return toPageResponse(tripSlice.map(this::mapToResponse),
+                tripCountService.countTripsByAuthor(authorId, countMode), countMode);
     }
 
-    public TripPageResponse getTripsByAuthor(Long authorId, int page, int size) {
+    public TripPageResponse searchMyTrips(Long authorId, String query, List<String> tags, int page, int size,
+            CountMode countMode) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Trip> tripPage = tripRepository.findByAuthorId(authorId, pageable);
 
-        List<TripResponse> content = tripPage.getContent().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        String cleanedQuery = (query != null && !query.isBlank()) ? query : null;
+        String[] tagArray = (tags != null && !tags.isEmpty()) ? tags.toArray(new String[0]) : new String[0];
 
-        return new TripPageResponse(
-                content,
-                tripPage.getNumber(),
-                tripPage.getSize(),
-                tripPage.getTotalElements(),
-                tripPage.getTotalPages(),
-                tripPage.hasNext(),
-                tripPage.hasPrevious());
+        if (countMode == CountMode.EXACT) {
+            return toPageResponse(tripRepository.searchMyTrips(authorId, cleanedQuery, tagArray,
+                    SortOrder.LATEST.name(), pageable));
+        }
+
+        Slice<Trip> tripSlice = tripRepository.searchMyTripsSlice(authorId, cleanedQuery, tagArray,
+                SortOrder.LATEST.name(), pageable);
+        return toPageResponse(tripSlice.map(this::mapToResponse),
+                tripCountService.countSearchMyTrips(authorId, cleanedQuery, tagArray, countMode), countMode);
     }
 
-    public TripPageResponse searchMyTrips(Long authorId, String query, List<String> tags, int page, int size) {
+    // List view backed by TripRepository.TRIP_PROJECTION_COLUMNS; authorId null means the public feed
+    public TripPageResponse getTripProjections(Long authorId, String query, List<String> tags, int page, int size,
+            SortOrder sortOrder, CountMode countMode, boolean coverOnly) {
+        return requestCoalescer.coalesce(
+                "projection:" + authorId + ":" + searchKey(query, tags) + ":" + sortOrder + ":" + countMode
+                        + ":" + coverOnly + ":" + page + ":" + size,
+                () -> loadTripProjections(authorId, query, tags, page, size, sortOrder, countMode, coverOnly));
+    }
+
+    private TripPageResponse loadTripProjections(Long authorId, String query, List<String> tags, int page,
+            int size, SortOrder sortOrder, CountMode countMode, boolean coverOnly) {
         Pageable pageable = PageRequest.of(page, size);
 
         String cleanedQuery = (query != null && !query.isBlank()) ? query : null;
         String[] tagArray = (tags != null && !tags.isEmpty()) ? tags.toArray(new String[0]) : new String[0];
+        boolean filtered = cleanedQuery != null || tagArray.length > 0;
+
+        Slice<Object[]> rows;
+        long total;
+        if (authorId == null) {
+            rows = tripRepository.searchTripProjections(cleanedQuery, tagArray, sortOrder.name(), coverOnly, pageable);
+            total = filtered
+                    ? tripCountService.countSearchTrips(cleanedQuery, tagArray, countMode)
+                    : tripCountService.countAllTrips(countMode);
+        } else {
+            rows = tripRepository.searchMyTripProjections(authorId, cleanedQuery, tagArray,
+                    SortOrder.LATEST.name(), coverOnly, pageable);
+            total = filtered
+                    ? tripCountService.countSearchMyTrips(authorId, cleanedQuery, tagArray, countMode)
+                    : tripCountService.countTripsByAuthor(authorId, countMode);
+        }
+
+        return toPageResponse(rows.map(this::mapProjection), total, countMode);
+    }
+
+    // One round trip for many ids (author joined); duplicates collapse, request order is kept
+    public TripBatchResponse getTripsByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BadRequestException("At least one id is required");
+        }
+        List<Long> uniqueIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (uniqueIds.size() > maxBatchSize) {
+            throw new BadRequestException("At most " + maxBatchSize + " ids per request");
+        }
+
+        Map<Long, Trip> tripsById = tripRepository.findByIdIn(uniqueIds).stream()
+                .collect(Collectors.toMap(Trip::getId, Function.identity()));
+
+        List<TripResponse> trips = new ArrayList<>(tripsById.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            Trip trip = tripsById.get(id);
+            if (trip != null) {
+                trips.add(mapToResponse(trip));
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new TripBatchResponse(trips, missingIds);
+    }
+
+    // Delta sync for /mine: what changed after the client's token, oldest change first
+    public TripChangesResponse getMyTripChanges(Long authorId, String since, Integer limit) {
+        SyncToken token = SyncToken.parse(since);
+        int max = limit == null || limit <= 0 ? defaultChangesLimit : Math.min(limit, maxChangesLimit);
+        LocalDateTime now = LocalDateTime.now();
+        // updated_at is stamped before commit, so stay far enough behind that in-flight writes are visible
+        LocalDateTime until = now.minus(Duration.ofMillis(changesSettleMillis));
+
+        if (!token.isInitial() && token.changedAt().isBefore(now.minusDays(eventRetentionDays))) {
+            return new TripChangesResponse(new ArrayList<>(), new ArrayList<>(),
+                    new SyncToken(until, 0).encode(), false, true);
+        }
+
+        List<Object[]> rows = tripRepository.findChangesByAuthor(authorId, token.changedAt(), token.tripId(),
+                until, PageRequest.of(0, max + 1));
+        boolean hasMore = rows.size() > max;
+        if (hasMore) {
+            rows = rows.subList(0, max);
+        }
+
+        List<Long> updatedIds = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        SyncToken next = token;
+        for (Object[] row : rows) {
+            long tripId = ((Number) row[0]).longValue();
+            if (Boolean.TRUE.equals(row[2])) {
+                deletedIds.add(tripId);
+            } else {
+                updatedIds.add(tripId);
+            }
+            next = new SyncToken(toLocalDateTime(row[1]), tripId);
+        }
+        // Nothing else can appear before `until`, so an idle client's token keeps moving forward
+        if (!hasMore) {
+            next = new SyncToken(until, 0);
+        }
+
+        Map<Long, Trip> tripsById = tripRepository.findByIdIn(updatedIds).stream()
+                .collect(Collectors.toMap(Trip::getId, Function.identity()));
+        List<TripResponse> updated = updatedIds.stream()
+                .map(tripsById::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
 
-        Page<Trip> tripPage = tripRepository.searchMyTrips(authorId, cleanedQuery, tagArray, pageable);
+        return new TripChangesResponse(updated, deletedIds, next.encode(), hasMore, false);
+    }
 
+    public TripResponse getTripById(Long id) {
+        TripResponse response = requestCoalescer.coalesce("trip:" + id,
+                () -> mapToResponse(tripRepository.findById(id).orElseThrow(() -> NotFoundException.TRIP_NOT_FOUND)));
+        // Every request is a view, including the ones that shared another request's query
+        tripEngagementService.recordView(id);
+        return response;
+    }
+
+    // Query matching is case-insensitive, tag matching is not; tag order never matters.
+    // NUL separators keep user input from making two different searches collide.
+    private String searchKey(String query, List<String> tags) {
+        String normalizedQuery = query != null ? query.trim().toLowerCase(Locale.ROOT) : "";
+        List<String> sortedTags = tags != null ? tags.stream().sorted().toList() : List.of();
+        return normalizedQuery + '\0' + String.join("\0", sortedTags);
+    }
+
+    private TripPageResponse toPageResponse(Page<Trip> tripPage) {
         List<TripResponse> content = tripPage.getContent().stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
@@ -181,13 +440,79 @@ public class TripService {
                 tripPage.getTotalElements(),
                 tripPage.getTotalPages(),
                 tripPage.hasNext(),
-                tripPage.hasPrevious());
+                tripPage.hasPrevious(),
+                CountMode.EXACT.name());
     }
 
-    public TripResponse getTripById(Long id) {
-        Trip trip = tripRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Trip not found"));
-        return mapToResponse(trip);
+    private TripPageResponse toPageResponse(Slice<TripResponse> tripSlice, long total, CountMode countMode) {
+        List<TripResponse> content = tripSlice.getContent();
+
+        // A stale or estimated total must never contradict the rows we actually saw
+        long seen = (long) tripSlice.getNumber() * tripSlice.getSize() + content.size()
+                + (tripSlice.hasNext() ? 1 : 0);
+        long totalElements = Math.max(total, seen);
+        int totalPages = tripSlice.getSize() == 0 ? 1
+                : (int) Math.ceil((double) totalElements / (double) tripSlice.getSize());
+
+        return new TripPageResponse(
+                content,
+                tripSlice.getNumber(),
+                tripSlice.getSize(),
+                totalElements,
+                totalPages,
+                tripSlice.hasNext(),
+                tripSlice.hasPrevious(),
+                countMode.name());
+    }
+
+    // Column order follows TripRepository.TRIP_PROJECTION_COLUMNS
+    private TripResponse mapProjection(Object[] row) {
+        TripResponse response = new TripResponse();
+        Long id = ((Number) row[0]).longValue();
+        response.setId(id);
+        response.setTitle((String) row[1]);
+        response.setPhotos(toStringList(row[2]));
+        response.setTags(toStringList(row[3]));
+        response.setProvince((String) row[4]);
+        response.setAuthorId(row[5] != null ? ((Number) row[5]).longValue() : null);
+        long persistedViews = row[6] != null ? ((Number) row[6]).longValue() : 0;
+        response.setViewCount(persistedViews + tripEngagementService.pendingViews(id));
+        response.setCreatedAt(toLocalDateTime(row[7]));
+        response.setUpdatedAt(toLocalDateTime(row[8]));
+        response.setLatitude(row[9] != null ? ((Number) row[9]).doubleValue() : null);
+        response.setLongitude(row[10] != null ? ((Number) row[10]).doubleValue() : null);
+        return response;
+    }
+
+    private List<String> toStringList(Object value) {
+        try {
+            if (value instanceof java.sql.Array array) {
+                value = array.getArray();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot read array column", e);
+        }
+        if (value instanceof Object[] array) {
+            List<String> list = new ArrayList<>(array.length);
+            for (Object element : array) {
+                list.add((String) element);
+            }
+            return list;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(String.class::cast).collect(Collectors.toList());
+        }
+        return new ArrayList<>();
+    }
+
+    private LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof LocalDateTime localDateTime) {
+            return localDateTime;
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return null;
     }
 
     private TripResponse mapToResponse(Trip trip) {
@@ -195,15 +520,19 @@ public class TripService {
         response.setId(trip.getId());
         response.setTitle(trip.getTitle());
         response.setDescription(trip.getDescription());
-        response.setPhotos(trip.getPhotos() != null ? trip.getPhotos() : new ArrayList<>());
-        response.setTags(trip.getTags() != null ? trip.getTags() : new ArrayList<>());
+        // Unmodifiable on the entity, so the response can share them instead of copying
+        response.setPhotos(trip.getPhotos());
+        response.setTags(trip.getTags());
         response.setLatitude(trip.getLatitude());
         response.setLongitude(trip.getLongitude());
         response.setProvince(trip.getProvince());
         response.setAuthorId(trip.getAuthorId());
         response.setAuthorName(trip.getAuthor() != null ? trip.getAuthor().getDisplayName() : null);
+        long persistedViews = trip.getViewCount() != null ? trip.getViewCount() : 0;
+        response.setViewCount(persistedViews + tripEngagementService.pendingViews(trip.getId()));
         response.setCreatedAt(trip.getCreatedAt());
         response.setUpdatedAt(trip.getUpdatedAt());
+        response.setVersion(trip.getVersion());
         return response;
     }
 }
@@ -0,0 +1,111 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.dto.TripStreamEvent;
+import com.techup.spring_demo.event.TripChanged;
+import com.techup.spring_demo.event.TripEventListener;
+import com.techup.spring_demo.exception.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fan-out of committed trip changes to Server-Sent Events subscribers.
+ *
+ * <p>Events arrive from the outbox dispatcher and are multicast through a best-effort sink. Each
+ * subscriber gets its own bounded buffer that drops the oldest event when the client can't keep up,
+ * so one slow connection never stalls the dispatcher or the other subscribers. Idle connections hold
+ * no request thread: the Flux is written through the servlet container's async I/O.
+ */
+@Service
+public class TripStreamService implements TripEventListener {
+
+    private final Sinks.Many<TripChanged> sink = Sinks.many().multicast().directBestEffort();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter dropped;
+
+    @Value("${trips.stream.max-subscribers:20000}")
+    private int maxSubscribers;
+
+    @Value("${trips.stream.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${trips.stream.heartbeat-seconds:25}")
+    private long heartbeatSeconds;
+
+    public TripStreamService(MeterRegistry meterRegistry) {
+        this.dropped = meterRegistry.counter("trips.stream.dropped");
+        meterRegistry.gauge("trips.stream.subscribers", subscribers);
+    }
+
+    @Override
+    public void onTripChanged(TripChanged event) {
+        // The dispatcher is the only emitter; FAIL_ZERO_SUBSCRIBER just means nobody is listening
+        sink.tryEmitNext(event);
+    }
+
+    // Empty tags/provinces mean no filter; a trip matches if it has any requested tag and province
+    public Flux<ServerSentEvent<TripStreamEvent>> subscribe(Collection<String> tags, Collection<String> provinces) {
+        // Reserve the slot up front (check and increment in one step), so concurrent subscribes can't all
+        // pass the limit; thrown here, the refusal is still a plain 503 rather than an error inside the stream
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "Too many live subscribers, try again later");
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Set<String> tagFilter = tags != null ? Set.copyOf(tags) : Set.of();
+        Set<String> provinceFilter = provinces != null ? Set.copyOf(provinces) : Set.of();
+
+        Flux<ServerSentEvent<TripStreamEvent>> changes = sink.asFlux()
+                .filter(event -> matches(event, tagFilter, provinceFilter))
+                .map(this::toServerSentEvent)
+                .onBackpressureBuffer(bufferSize, ignored -> dropped.increment(), BufferOverflowStrategy.DROP_OLDEST);
+
+        // Comments keep proxies from closing idle connections and surface dead clients on write
+        Flux<ServerSentEvent<TripStreamEvent>> heartbeats = Flux.interval(Duration.ofSeconds(heartbeatSeconds))
+                .map(tick -> ServerSentEvent.<TripStreamEvent>builder().comment("keep-alive").build())
+                .onBackpressureDrop();
+
+        return Flux.merge(changes, heartbeats)
+                .doFinally(signal -> {
+                    if (released.compareAndSet(false, true)) {
+                        subscribers.decrementAndGet();
+                    }
+                });
+    }
+
+    private boolean matches(TripChanged event, Set<String> tags, Set<String> provinces) {
+        if (!provinces.isEmpty() && (event.province() == null || !provinces.contains(event.province()))) {
+            return false;
+        }
+        return tags.isEmpty() || event.tags().stream().anyMatch(tags::contains);
+    }
+
+    private ServerSentEvent<TripStreamEvent> toServerSentEvent(TripChanged event) {
+        TripStreamEvent payload = new TripStreamEvent(
+                event.type().name(),
+                event.tripId(),
+                event.title(),
+                event.coverPhoto(),
+                event.tags(),
+                event.province(),
+                event.authorId(),
+                event.tripCreatedAt());
+        return ServerSentEvent.builder(payload)
+                .id(Long.toString(event.eventId()))
+                .event(event.type().name().toLowerCase(Locale.ROOT))
+                .build();
+    }
+}
@@ -0,0 +1,241 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.dto.TripSuggestionResponse;
+import com.techup.spring_demo.entity.TripEvent;
+import com.techup.spring_demo.event.TripChanged;
+import com.techup.spring_demo.event.TripEventListener;
+import com.techup.spring_demo.repository.TripRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+public class TripSuggestionService implements TripEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TripSuggestionService.class);
+
+    // Memory bound: a title adds at most MAX_TITLE_WORDS keys (its distinct words) and a tag one key,
+    // each at most MAX_KEY_DEPTH nodes deep, so the index holds at most
+    // trips * (MAX_TITLE_WORDS + tags per trip) * MAX_KEY_DEPTH nodes, each caching at most MAX_LIMIT
+    // entries. Prefixes longer than a key (or spanning words) are matched by filtering that node's entries.
+    private static final int MAX_KEY_DEPTH = 16;
+    private static final int MAX_TITLE_WORDS = 12;
+    private static final int MAX_LIMIT = 20;
+
+    private final TripRepository tripRepository;
+
+    private final PrefixIndex titleIndex = new PrefixIndex(MAX_LIMIT);
+    private final PrefixIndex tagIndex = new PrefixIndex(MAX_LIMIT);
+    // What is currently indexed per trip, so replayed or out-of-date events can be applied idempotently
+    private final Map<Long, IndexedTrip> indexed = new HashMap<>();
+
+    @Value("${trips.suggestions.default-limit:8}")
+    private int defaultLimit;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void buildIndex() {
+        long start = System.currentTimeMillis();
+        List<Object[]> rows = tripRepository.findAllTitlesAndTags();
+        for (Object[] row : rows) {
+            put((Long) row[0], (String) row[1], toTags(row[2]));
+        }
+        logger.info("Built trip suggestion index from {} trips in {} ms",
+                rows.size(), System.currentTimeMillis() - start);
+    }
+
+    public TripSuggestionResponse suggest(String prefix, Integer limit) {
+        String key = normalize(prefix);
+        int max = limit == null || limit <= 0 ? defaultLimit : Math.min(limit, MAX_LIMIT);
+        if (key.isEmpty()) {
+            return new TripSuggestionResponse(List.of(), List.of());
+        }
+        // Titles are keyed by word, so "chiang m" walks "chiang" and filters on the whole prefix
+        int space = key.indexOf(' ');
+        return new TripSuggestionResponse(
+                titleIndex.lookup(space > 0 ? key.substring(0, space) : key, key, max),
+                tagIndex.lookup(key, key, max));
+    }
+
+    @Override
+    public synchronized void onTripChanged(TripChanged event) {
+        if (event.type() == TripEvent.Type.DELETED) {
+            IndexedTrip previous = indexed.remove(event.tripId());
+            if (previous != null) {
+                adjust(previous.title(), previous.tags(), -1);
+            }
+        } else {
+            put(event.tripId(), event.title(), event.tags());
+        }
+    }
+
+    private void put(Long tripId, String title, List<String> tags) {
+        IndexedTrip current = new IndexedTrip(title, tags != null ? List.copyOf(tags) : List.of());
+        IndexedTrip previous = indexed.put(tripId, current);
+        if (current.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            adjust(previous.title(), previous.tags(), -1);
+        }
+        adjust(current.title(), current.tags(), 1);
+    }
+
+    private void adjust(String title, List<String> tags, int delta) {
+        for (String key : titleKeys(title)) {
+            titleIndex.adjust(key, title, delta);
+        }
+        for (String tag : new LinkedHashSet<>(tags)) {
+            tagIndex.adjust(normalize(tag), tag, delta);
+        }
+    }
+
+    // Every word of the title is a key, so "mai" completes "Trip to Chiang Mai"
+    private Set<String> titleKeys(String title) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String word : normalize(title).split("\\s+")) {
+            if (keys.size() >= MAX_TITLE_WORDS) {
+                break;
+            }
+            if (!word.isEmpty()) {
+                keys.add(word);
+            }
+        }
+        return keys;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> toTags(Object value) {
+        if (value instanceof List<?> list) {
+            return (List<String>) list;
+        }
+        if (value instanceof String[] array) {
+            return List.of(array);
+        }
+        return List.of();
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record IndexedTrip(String title, List<String> tags) {
+    }
+
+    /**
+     * Character trie where every node caches the top suggestions of its subtree,
+     * so a lookup is a walk down the prefix plus a copy of at most {@code limit} entries.
+     * Writers are serialized; readers never lock.
+     */
+    static final class PrefixIndex {
+
+        private static final Comparator<Suggestion> BY_WEIGHT = Comparator
+                .comparingLong(Suggestion::weight).reversed()
+                .thenComparing(Suggestion::text);
+
+        private final int topSize;
+        private final Node root = new Node();
+
+        PrefixIndex(int topSize) {
+            this.topSize = topSize;
+        }
+
+        // Walks to walkKey (a prefix of prefix) and returns entries containing the whole prefix
+        List<String> lookup(String walkKey, String prefix, int limit) {
+            String key = walkKey.length() > MAX_KEY_DEPTH ? walkKey.substring(0, MAX_KEY_DEPTH) : walkKey;
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+
+            List<String> result = new ArrayList<>(limit);
+            for (Suggestion suggestion : node.top) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                // Only needed when the prefix was longer than the walked key
+                if (key.length() == prefix.length()
+                        || suggestion.text().toLowerCase(Locale.ROOT).contains(prefix)) {
+                    result.add(suggestion.text());
+                }
+            }
+            return result;
+        }
+
+        synchronized void adjust(String rawKey, String text, int delta) {
+            if (rawKey.isEmpty() || text == null) {
+                return;
+            }
+            String key = rawKey.length() > MAX_KEY_DEPTH ? rawKey.substring(0, MAX_KEY_DEPTH) : rawKey;
+
+            Node[] path = new Node[key.length() + 1];
+            Node node = root;
+            path[0] = node;
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                node = delta > 0 ? node.children.computeIfAbsent(c, ignored -> new Node()) : node.children.get(c);
+                if (node == null) {
+                    return;
+                }
+                path[i + 1] = node;
+            }
+
+            long count = node.terms.getOrDefault(text, 0L) + delta;
+            if (count > 0) {
+                node.terms.put(text, count);
+            } else {
+                node.terms.remove(text);
+            }
+
+            // Rebuild cached tops bottom-up and prune nodes that no longer hold anything
+            for (int depth = key.length(); depth >= 0; depth--) {
+                Node current = path[depth];
+                current.top = computeTop(current);
+                if (depth > 0 && current.terms.isEmpty() && current.children.isEmpty()) {
+                    path[depth - 1].children.remove(key.charAt(depth - 1));
+                }
+            }
+        }
+
+        private List<Suggestion> computeTop(Node node) {
+            Map<String, Long> merged = new HashMap<>(node.terms);
+            for (Node child : node.children.values()) {
+                for (Suggestion suggestion : child.top) {
+                    merged.merge(suggestion.text(), suggestion.weight(), Math::max);
+                }
+            }
+            return merged.entrySet().stream()
+                    .map(entry -> new Suggestion(entry.getKey(), entry.getValue()))
+                    .sorted(BY_WEIGHT)
+                    .limit(topSize)
+                    .toList();
+        }
+
+        private static final class Node {
+            final Map<Character, Node> children = new ConcurrentHashMap<>(4);
+            // Only touched by writers under the index lock
+            final Map<String, Long> terms = new HashMap<>(2);
+            volatile List<Suggestion> top = List.of();
+        }
+
+        private record Suggestion(String text, long weight) {
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.exception.BadRequestException;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Parsed {@code If-Match} for trip writes. The trip ETag is its quoted version ({@code "3"}); the header is
+ * {@code *} or a comma-separated list of entity tags (RFC 9110 section 13.1.1) and matches when any tag
+ * equals the current version by strong comparison, so weak ({@code W/}) and non-numeric tags never match.
+ * Without the header a write is unconditional, as it was before ETags, so existing clients keep working.
+ */
+public record TripVersionMatch(boolean any, Set<Long> versions) {
+
+    public static final TripVersionMatch ANY = new TripVersionMatch(true, Set.of());
+
+    public static String etag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static TripVersionMatch parse(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return ANY;
+        }
+
+        Set<Long> versions = new LinkedHashSet<>();
+        int tags = 0;
+        int i = 0;
+        int length = ifMatch.length();
+        while (i < length) {
+            char c = ifMatch.charAt(i);
+            if (c == ',' || c == ' ' || c == '\t') {
+                i++;
+                continue;
+            }
+            boolean weak = ifMatch.startsWith("W/", i);
+            int open = weak ? i + 2 : i;
+            int close = open < length && ifMatch.charAt(open) == '"' ? ifMatch.indexOf('"', open + 1) : -1;
+            if (close < 0) {
+                throw new BadRequestException("If-Match must be * or a list of quoted entity tags");
+            }
+            tags++;
+            String tag = ifMatch.substring(open + 1, close);
+            if (!weak && !tag.isEmpty() && tag.chars().allMatch(d -> d >= '0' && d <= '9')) {
+                try {
+                    versions.add(Long.parseLong(tag));
+                } catch (NumberFormatException e) {
+                    // Too large for any version: cannot match
+                }
+            }
+            i = close + 1;
+            while (i < length && (ifMatch.charAt(i) == ' ' || ifMatch.charAt(i) == '\t')) {
+                i++;
+            }
+            if (i < length && ifMatch.charAt(i) != ',') {
+                throw new BadRequestException("If-Match must be * or a list of quoted entity tags");
+            }
+        }
+        if (tags == 0) {
+            throw new BadRequestException("If-Match must be * or a list of quoted entity tags");
+        }
+        return new TripVersionMatch(false, Set.copyOf(versions));
+    }
+
+    public boolean matches(Long version) {
+        return any || versions.contains(version);
+    }
+
+    public Long[] versionArray() {
+        return versions.toArray(new Long[0]);
+    }
+}
@@ -0,0 +1,14 @@
+-- Runs after Hibernate's ddl-auto (spring.jpa.defer-datasource-initialization) on every start unless
+-- SQL_INIT_MODE=never, so everything here must be idempotent. Once applied, a start only pays the catalog
+-- lookups; a new index is built with a plain CREATE INDEX, which blocks writes to trips while it runs.
+-- Indexes JPA can't express live here.
+
+-- Read paths only ever see live trips; partial indexes skip rows waiting for purge
+CREATE INDEX IF NOT EXISTS idx_trips_live_created_at ON trips (created_at DESC) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_trips_live_view_count ON trips (view_count DESC) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_trips_live_author_created ON trips (author_id, created_at DESC) WHERE deleted_at IS NULL;
+-- Change feed (GET /api/trips/mine/changes)
+CREATE INDEX IF NOT EXISTS idx_trips_live_author_updated ON trips (author_id, updated_at) WHERE deleted_at IS NULL;
+
+-- Purge queue for TripPurgeService
+CREATE INDEX IF NOT EXISTS idx_trips_deleted_at ON trips (deleted_at) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,64 @@
+package com.techup.spring_demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.techup.spring_demo.dto.SampleTrips;
+import com.techup.spring_demo.dto.TripPageResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes and serialize time of a 20-trip page in the three negotiated encodings, with and without the gzip
+ * response compression applies above 1 KB. Mappers come from the same JacksonConfig factories as the converters.
+ * Prints the comparison; the assertions only check sizes, timings are too noisy for a unit run.
+ */
+class TripEncodingBenchmarkTest {
+
+	private static final int ITERATIONS = 2_000;
+
+	@Test
+	void binaryEncodingsAreSmallerThanJson() throws Exception {
+		Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+		mappers.put("json", SampleTrips.mapperBuilder().build());
+		mappers.put("cbor", JacksonConfig.cborMapper(SampleTrips.mapperBuilder()));
+		mappers.put("smile", JacksonConfig.smileMapper(SampleTrips.mapperBuilder()));
+		TripPageResponse page = SampleTrips.page(20);
+
+		Map<String, Integer> sizes = new LinkedHashMap<>();
+		System.out.printf("20-trip page, %d serializations each%n", ITERATIONS);
+		System.out.printf("  %-6s %8s %8s %12s %14s%n", "format", "bytes", "gzip", "us/page", "us/page+gzip");
+		for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+			ObjectWriter writer = entry.getValue().writerFor(TripPageResponse.class);
+			byte[] body = writer.writeValueAsBytes(page);
+			byte[] gzipped = SampleTrips.gzip(body);
+			sizes.put(entry.getKey(), body.length);
+			sizes.put(entry.getKey() + "+gzip", gzipped.length);
+
+			// Warm up before timing
+			for (int i = 0; i < ITERATIONS; i++) {
+				writer.writeValueAsBytes(page);
+			}
+			long start = System.nanoTime();
+			for (int i = 0; i < ITERATIONS; i++) {
+				writer.writeValueAsBytes(page);
+			}
+			long plain = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int i = 0; i < ITERATIONS; i++) {
+				SampleTrips.gzip(writer.writeValueAsBytes(page));
+			}
+			long compressed = System.nanoTime() - start;
+
+			System.out.printf("  %-6s %,8d %,8d %12.1f %14.1f%n", entry.getKey(), body.length, gzipped.length,
+					plain / 1_000.0 / ITERATIONS, compressed / 1_000.0 / ITERATIONS);
+		}
+
+		assertThat(sizes.get("cbor")).isLessThan(sizes.get("json"));
+		assertThat(sizes.get("smile")).isLessThan(sizes.get("json"));
+		assertThat(sizes.get("json+gzip")).isLessThan(sizes.get("cbor"));
+	}
+}
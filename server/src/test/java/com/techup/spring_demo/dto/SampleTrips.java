@@ -0,0 +1,71 @@
+package com.techup.spring_demo.dto;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.techup.spring_demo.config.JacksonConfig;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+// Realistic trip pages and the mapper settings the app uses, for offline payload measurements
+public final class SampleTrips {
+
+	private static final String[] PROVINCES = {"Bangkok", "Chiang Mai", "Phuket", "Krabi", "เชียงราย"};
+	private static final String[] TAGS = {"beach", "food", "temple", "island", "night market", "hiking"};
+
+	private SampleTrips() {
+	}
+
+	public static TripPageResponse page(int size) {
+		List<TripResponse> content = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			content.add(trip(i));
+		}
+		return new TripPageResponse(content, 0, size, 1_234, 62, true, false, "EXACT");
+	}
+
+	public static TripResponse trip(int i) {
+		String province = PROVINCES[i % PROVINCES.length];
+		List<String> photos = new ArrayList<>();
+		for (int p = 0; p < 1 + i % 4; p++) {
+			photos.add("https://xyz.supabase.co/storage/v1/object/public/trips/"
+					+ Integer.toHexString(0x9e3779b9 * (i * 4 + p + 1)) + "0f3a9c2d7e1b4a6c8d0e2f4a6b8c0d2e4f6a8b0c.jpg");
+		}
+		List<String> tags = List.of(TAGS[i % TAGS.length], TAGS[(i + 2) % TAGS.length]);
+		String description = ("Day " + (i + 1) + " in " + province + ": early market breakfast, a long walk "
+				+ "through the old town, temples in the afternoon and street food until late. ").repeat(4);
+		LocalDateTime created = LocalDateTime.of(2025, 1, 1, 8, 0).plusHours(i * 7L);
+		return new TripResponse((long) (1000 + i), "Trip " + (i + 1) + " to " + province, description, photos,
+				tags, 13.75 + i * 0.01, 100.5 + i * 0.01, province, (long) (10 + i % 7), "traveller" + (i % 7),
+				(long) (i * 37 % 900), created, created.plusDays(1), 2L);
+	}
+
+	// Same defaults as JacksonConfig: every TripResponse field unless a request narrows it
+	public static Jackson2ObjectMapperBuilder mapperBuilder() {
+		return Jackson2ObjectMapperBuilder.json().filters(new SimpleFilterProvider()
+				.setDefaultFilter(SimpleBeanPropertyFilter.serializeAll())
+				.setFailOnUnknownId(false));
+	}
+
+	public static SimpleFilterProvider onlyFields(Set<String> fields) {
+		return new SimpleFilterProvider().addFilter(JacksonConfig.TRIP_FIELDS_FILTER,
+				SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+	}
+
+	public static byte[] gzip(byte[] bytes) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out.toByteArray();
+	}
+}
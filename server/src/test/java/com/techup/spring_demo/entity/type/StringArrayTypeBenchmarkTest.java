@@ -0,0 +1,82 @@
+package com.techup.spring_demo.entity.type;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load-and-flush cost of the text[] columns for a page of managed trips: the previous mapping (a mutable
+ * List, which Hibernate snapshots with a copy on load and compares element by element at flush) against
+ * StringArrayType (the loaded list is its own snapshot, an untouched column is one reference check).
+ * Prints the comparison; the assertion only checks the allocation difference, which is deterministic.
+ */
+class StringArrayTypeBenchmarkTest {
+
+	private static final int TRIPS = 10_000;
+	private static final int ROUNDS = 20;
+
+	@Test
+	void immutableSnapshotsAllocateNothingPerFlush() {
+		StringArrayType type = new StringArrayType();
+		List<List<String>> loaded = new ArrayList<>(TRIPS);
+		for (int i = 0; i < TRIPS; i++) {
+			loaded.add(StringArrayType.immutableCopy(List.of("beach", "food", "island", "trip-" + i)));
+		}
+
+		// Warm up both paths before measuring
+		mutableFlush(loaded);
+		immutableFlush(type, loaded);
+
+		Measurement mutable = measure(() -> mutableFlush(loaded));
+		Measurement immutable = measure(() -> immutableFlush(type, loaded));
+
+		System.out.printf("text[] load+flush, %d trips x %d rounds%n", TRIPS, ROUNDS);
+		System.out.printf("  mutable List (copy + element compare): %,12d bytes %,8d us%n",
+				mutable.bytes(), mutable.nanos() / 1_000);
+		System.out.printf("  StringArrayType (reference snapshot):  %,12d bytes %,8d us%n",
+				immutable.bytes(), immutable.nanos() / 1_000);
+
+		assertThat(immutable.bytes()).isLessThan(mutable.bytes() / 10);
+	}
+
+	private static int mutableFlush(List<List<String>> loaded) {
+		int dirty = 0;
+		for (List<String> value : loaded) {
+			List<String> snapshot = new ArrayList<>(value);
+			if (!snapshot.equals(value)) {
+				dirty++;
+			}
+		}
+		return dirty;
+	}
+
+	private static int immutableFlush(StringArrayType type, List<List<String>> loaded) {
+		int dirty = 0;
+		for (List<String> value : loaded) {
+			List<String> snapshot = type.deepCopy(value);
+			if (!type.equals(snapshot, value)) {
+				dirty++;
+			}
+		}
+		return dirty;
+	}
+
+	private static Measurement measure(Runnable flush) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().threadId();
+		long bytesBefore = threads.getThreadAllocatedBytes(thread);
+		long start = System.nanoTime();
+		for (int round = 0; round < ROUNDS; round++) {
+			flush.run();
+		}
+		long nanos = System.nanoTime() - start;
+		return new Measurement(threads.getThreadAllocatedBytes(thread) - bytesBefore, nanos);
+	}
+
+	private record Measurement(long bytes, long nanos) {
+	}
+}
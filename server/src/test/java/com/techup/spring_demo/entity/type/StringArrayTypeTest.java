@@ -0,0 +1,73 @@
+package com.techup.spring_demo.entity.type;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StringArrayTypeTest {
+
+	@Test
+	void immutableCopyDropsNullsAndCannotBeModified() {
+		List<String> copy = StringArrayType.immutableCopy(Arrays.asList("a.jpg", null, "b.jpg"));
+
+		assertThat(copy).containsExactly("a.jpg", "b.jpg");
+		assertThatThrownBy(() -> copy.add("c.jpg")).isInstanceOf(UnsupportedOperationException.class);
+		assertThat(StringArrayType.immutableCopy(null)).isEmpty();
+	}
+
+	@Test
+	void nullAndEmptyCompareEqualSoLoadedNullIsNotRewritten() {
+		StringArrayType type = new StringArrayType();
+
+		assertThat(type.equals(null, List.of())).isTrue();
+		assertThat(type.hashCode(null)).isEqualTo(type.hashCode(List.of()));
+		assertThat(type.equals(List.of("a"), List.of("b"))).isFalse();
+	}
+
+	@Test
+	void snapshotIsTheValueItself() {
+		StringArrayType type = new StringArrayType();
+		List<String> value = List.of("a");
+
+		assertThat(type.isMutable()).isFalse();
+		assertThat(type.deepCopy(value)).isSameAs(value);
+	}
+
+	@Test
+	void loadsNullColumnAsEmptyAndDropsNullElements() throws Exception {
+		StringArrayType type = new StringArrayType();
+
+		assertThat(type.nullSafeGet(resultSet(null), 1, null, null)).isEmpty();
+		assertThat(type.nullSafeGet(resultSet(new String[] {"x", null, "y"}), 1, null, null))
+				.containsExactly("x", "y");
+	}
+
+	@Test
+	void internedTypeSharesOneInstancePerValue() throws Exception {
+		InternedStringArrayType type = new InternedStringArrayType();
+		String first = new String("beach");
+		String second = new String("beach");
+
+		List<String> assigned = InternedStringArrayType.internedCopy(List.of(first));
+		List<String> loaded = type.nullSafeGet(resultSet(new String[] {second}), 1, null, null);
+
+		assertThat(loaded.get(0)).isSameAs(assigned.get(0));
+	}
+
+	// ResultSet whose getArray returns the given elements (null for a NULL column)
+	private static ResultSet resultSet(String[] elements) {
+		Array array = elements == null ? null : (Array) Proxy.newProxyInstance(
+				Array.class.getClassLoader(), new Class<?>[] {Array.class},
+				(proxy, method, args) -> method.getName().equals("getArray") ? elements : null);
+		return (ResultSet) Proxy.newProxyInstance(
+				ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+				(proxy, method, args) -> method.getName().equals("getArray") ? array : null);
+	}
+}
@@ -0,0 +1,66 @@
+package com.techup.spring_demo.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throw-and-handle cost of the stackless ApiException against the stack-filled RuntimeException the
+ * services threw before, raised a realistic depth below the handler (servlet filters, proxies and the
+ * controller sit between the two in a request) and turned into a response by GlobalExceptionHandler.
+ * Prints the comparison; the assertion only checks that no trace is captured, timings are too noisy.
+ */
+class ApiExceptionBenchmarkTest {
+
+	private static final int DEPTH = 100;
+	private static final int ITERATIONS = 50_000;
+
+	private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+	@Test
+	void stacklessApiExceptionSkipsTheStackWalk() {
+		Supplier<RuntimeException> stackFilled = () -> new RuntimeException("Trip not found");
+		Supplier<RuntimeException> stackless = () -> new NotFoundException("Trip not found");
+
+		// Warm up both paths before timing
+		run(stackFilled);
+		run(stackless);
+
+		long filledNanos = run(stackFilled);
+		long stacklessNanos = run(stackless);
+
+		System.out.printf("throw at depth %d + handle, %d iterations%n", DEPTH, ITERATIONS);
+		System.out.printf("  RuntimeException (stack filled): %,8.0f ns/op%n", (double) filledNanos / ITERATIONS);
+		System.out.printf("  ApiException (stackless):        %,8.0f ns/op%n", (double) stacklessNanos / ITERATIONS);
+
+		assertThat(new ApiException(HttpStatus.NOT_FOUND, "x").getStackTrace()).isEmpty();
+		assertThat(stackFilled.get().getStackTrace()).isNotEmpty();
+	}
+
+	private long run(Supplier<RuntimeException> failure) {
+		int statuses = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			try {
+				descend(DEPTH, failure);
+			} catch (ApiException e) {
+				statuses += handler.handleApiException(e).getStatusCode().value();
+			} catch (RuntimeException e) {
+				statuses += handler.handleRuntimeException(e).getStatusCode().value();
+			}
+		}
+		long nanos = System.nanoTime() - start;
+		assertThat(statuses).isPositive();
+		return nanos;
+	}
+
+	private static void descend(int depth, Supplier<RuntimeException> failure) {
+		if (depth == 0) {
+			throw failure.get();
+		}
+		descend(depth - 1, failure);
+	}
+}
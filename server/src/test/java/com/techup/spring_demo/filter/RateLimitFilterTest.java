@@ -0,0 +1,42 @@
+package com.techup.spring_demo.filter;
+
+import com.techup.spring_demo.config.RateLimitProperties;
+import com.techup.spring_demo.service.InMemoryRateLimiter;
+import com.techup.spring_demo.service.SessionCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class RateLimitFilterTest {
+
+	// No permits at all: every request the cap applies to is shed
+	private final RateLimitFilter filter = new RateLimitFilter(new RateLimitProperties(), new InMemoryRateLimiter(),
+			mock(SessionCache.class), 0);
+
+	@Test
+	void databaseBoundTripRoutesAreShedWhenNoPermitIsFree() throws Exception {
+		assertThat(status("GET", "/api/trips")).isEqualTo(503);
+		assertThat(status("GET", "/api/trips/42")).isEqualTo(503);
+		assertThat(status("PUT", "/api/trips/42")).isEqualTo(503);
+	}
+
+	@Test
+	void uploadsAuthAndInMemoryRoutesNeverWaitForAPermit() throws Exception {
+		assertThat(status("POST", "/api/files/uploads")).isEqualTo(200);
+		assertThat(status("POST", "/api/files/complete")).isEqualTo(200);
+		assertThat(status("GET", "/api/auth/me")).isEqualTo(200);
+		assertThat(status("GET", "/api/trips/suggestions")).isEqualTo(200);
+		assertThat(status("GET", "/api/trips/stream")).isEqualTo(200);
+	}
+
+	private int status(String method, String path) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response.getStatus();
+	}
+}
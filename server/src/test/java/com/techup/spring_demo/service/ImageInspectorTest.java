@@ -0,0 +1,86 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageInspectorTest {
+
+	@Test
+	void readsJpegDimensionsAfterAppSegments() throws IOException {
+		ImageInspector.ImageInfo info = ImageInspector.inspect(new ByteArrayInputStream(jpeg("Orientation=1")));
+
+		assertThat(info).isEqualTo(new ImageInspector.ImageInfo("image/jpeg", 640, 480));
+	}
+
+	@Test
+	void jpegsDifferingOnlyInExifHashDifferently() throws Exception {
+		// Same pass as SupabaseStorageService.inspect: sniff through the digest, then drain the rest
+		assertThat(sha256(jpeg("GPS=13.75,100.50"))).isNotEqualTo(sha256(jpeg("GPS=00.00,000.00")));
+	}
+
+	@Test
+	void readsPngGifAndWebpDimensions() throws IOException {
+		byte[] png = bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 13, 'I', 'H', 'D', 'R',
+				0, 0, 0x03, 0x20, 0, 0, 0x02, 0x58);
+		byte[] gif = bytes('G', 'I', 'F', '8', '9', 'a', 0x40, 0x01, 0xF0, 0x00, 0x00, 0x00);
+		byte[] webp = bytes('R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P', 'V', 'P', '8', 'X', 10, 0, 0, 0,
+				0, 0, 0, 0, 0x7F, 0x02, 0x00, 0xDF, 0x01, 0x00);
+
+		assertThat(ImageInspector.inspect(new ByteArrayInputStream(png)))
+				.isEqualTo(new ImageInspector.ImageInfo("image/png", 800, 600));
+		assertThat(ImageInspector.inspect(new ByteArrayInputStream(gif)))
+				.isEqualTo(new ImageInspector.ImageInfo("image/gif", 320, 240));
+		assertThat(ImageInspector.inspect(new ByteArrayInputStream(webp)))
+				.isEqualTo(new ImageInspector.ImageInfo("image/webp", 640, 480));
+	}
+
+	@Test
+	void rejectsNonImagesAndTruncatedHeaders() {
+		assertThatThrownBy(() -> ImageInspector.inspect(new ByteArrayInputStream("<svg></svg>".getBytes())))
+				.isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> ImageInspector.inspect(new ByteArrayInputStream(bytes(0xFF, 0xD8, 0xFF, 0xE1, 0x00))))
+				.isInstanceOf(BadRequestException.class);
+	}
+
+	// SOI, an APP1 segment carrying the given text, SOF0 for 640x480, EOI
+	private static byte[] jpeg(String exif) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(bytes(0xFF, 0xD8, 0xFF, 0xE1));
+		byte[] payload = exif.getBytes();
+		out.write((payload.length + 2) >> 8);
+		out.write(payload.length + 2);
+		out.write(payload);
+		out.write(bytes(0xFF, 0xC0, 0x00, 0x11, 0x08, 0x01, 0xE0, 0x02, 0x80, 0x03));
+		out.write(new byte[9]);
+		out.write(bytes(0xFF, 0xD9));
+		return out.toByteArray();
+	}
+
+	private static String sha256(byte[] file) throws Exception {
+		try (DigestInputStream in = new DigestInputStream(new ByteArrayInputStream(file),
+				MessageDigest.getInstance("SHA-256"))) {
+			ImageInspector.inspect(in);
+			in.transferTo(OutputStream.nullOutputStream());
+			return HexFormat.of().formatHex(in.getMessageDigest().digest());
+		}
+	}
+
+	private static byte[] bytes(int... values) {
+		byte[] bytes = new byte[values.length];
+		for (int i = 0; i < values.length; i++) {
+			bytes[i] = (byte) values[i];
+		}
+		return bytes;
+	}
+}
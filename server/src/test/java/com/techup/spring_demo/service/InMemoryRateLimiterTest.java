@@ -0,0 +1,51 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.config.RateLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryRateLimiterTest {
+
+	@Test
+	void allowsCapacityThenRejectsWithRetryAfter() {
+		InMemoryRateLimiter limiter = new InMemoryRateLimiter();
+		RateLimitProperties.Rule rule = new RateLimitProperties.Rule("GET", "/api/trips", 3, 0.001);
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.tryAcquire("ip:1", rule).allowed()).isTrue();
+		}
+		RateLimiter.Decision rejected = limiter.tryAcquire("ip:1", rule);
+
+		assertThat(rejected.allowed()).isFalse();
+		// One token at 0.001/s is about 1000 s away
+		assertThat(rejected.retryAfterMillis()).isBetween(900_000L, 1_000_000L);
+	}
+
+	@Test
+	void keysHaveSeparateBuckets() {
+		InMemoryRateLimiter limiter = new InMemoryRateLimiter();
+		RateLimitProperties.Rule rule = new RateLimitProperties.Rule(null, "/**", 1, 0);
+
+		assertThat(limiter.tryAcquire("ip:1", rule).allowed()).isTrue();
+		assertThat(limiter.tryAcquire("ip:1", rule).allowed()).isFalse();
+		assertThat(limiter.tryAcquire("ip:2", rule).allowed()).isTrue();
+		assertThat(limiter.tryAcquire("user:42", rule).allowed()).isTrue();
+	}
+
+	@Test
+	void evictsOnlyFullBuckets() {
+		InMemoryRateLimiter limiter = new InMemoryRateLimiter();
+		RateLimitProperties.Rule rule = new RateLimitProperties.Rule(null, "/**", 2, 0);
+		// Refills within a nanosecond, so it is full again by the time eviction runs
+		RateLimitProperties.Rule instant = new RateLimitProperties.Rule(null, "/**", 1, 1e12);
+
+		limiter.tryAcquire("drained", rule);
+		limiter.tryAcquire("drained", rule);
+		limiter.tryAcquire("partly-used", rule);
+		limiter.tryAcquire("refilled", instant);
+		limiter.evictIdleBuckets();
+
+		assertThat(limiter.size()).isEqualTo(2);
+	}
+}
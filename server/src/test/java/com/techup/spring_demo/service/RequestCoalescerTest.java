@@ -0,0 +1,94 @@
+package com.techup.spring_demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestCoalescerTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void concurrentCallsShareOneLoad() throws Exception {
+		RequestCoalescer coalescer = new RequestCoalescer(registry, 5_000);
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger loads = new AtomicInteger();
+
+		CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> coalescer.coalesce("trip:1", () -> {
+			loads.incrementAndGet();
+			loading.countDown();
+			await(release);
+			return "value";
+		}));
+		assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> coalescer.coalesce("trip:1", () -> {
+			loads.incrementAndGet();
+			return "own load";
+		}));
+		// The follower is parked on the leader's future once it counts as coalesced
+		while (registry.counter("trips.coalescing.requests", "outcome", "coalesced").count() < 1) {
+			Thread.onSpinWait();
+		}
+		release.countDown();
+
+		assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+		assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void sequentialCallsLoadAgain() {
+		RequestCoalescer coalescer = new RequestCoalescer(registry, 5_000);
+		AtomicInteger loads = new AtomicInteger();
+
+		coalescer.coalesce("trip:1", loads::incrementAndGet);
+		coalescer.coalesce("trip:1", loads::incrementAndGet);
+
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void leaderFailureIsRethrownAndNotCached() {
+		RequestCoalescer coalescer = new RequestCoalescer(registry, 5_000);
+
+		assertThatThrownBy(() -> coalescer.coalesce("trip:1", () -> {
+			throw new IllegalArgumentException("boom");
+		})).isInstanceOf(IllegalArgumentException.class);
+		assertThat(coalescer.coalesce("trip:1", () -> "recovered")).isEqualTo("recovered");
+	}
+
+	@Test
+	void followerLoadsItselfAfterMaxWait() throws Exception {
+		RequestCoalescer coalescer = new RequestCoalescer(registry, 10);
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> coalescer.coalesce("trip:1", () -> {
+			loading.countDown();
+			await(release);
+			return "slow";
+		}));
+		assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(coalescer.coalesce("trip:1", () -> "own")).isEqualTo("own");
+		assertThat(registry.counter("trips.coalescing.requests", "outcome", "timeout").count()).isEqualTo(1);
+		release.countDown();
+		assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.techup.spring_demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Auth paths against a stub Supabase that takes a fixed time per call: /me resolved through SessionCache
+ * against a round trip per request, and logins kept in flight together on the non-blocking client against
+ * one blocked thread per login. Prints the comparison; the assertions allow generous slack.
+ */
+class SupabaseAuthBenchmarkTest {
+
+	private static final long SUPABASE_LATENCY_MS = 40;
+	private static final int REQUESTS = 32;
+
+	private HttpServer supabase;
+	private final AtomicInteger userCalls = new AtomicInteger();
+	private SessionCache sessionCache;
+	private SupabaseAuthService authService;
+
+	@BeforeEach
+	void startSupabase() throws IOException {
+		supabase = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		supabase.setExecutor(Executors.newCachedThreadPool());
+		supabase.createContext("/auth/v1/user", exchange -> {
+			userCalls.incrementAndGet();
+			respond(exchange, "{\"id\":\"6f1c2a9e-0d1b-4e55-9a57-2f1f5b8d4c3a\",\"email\":\"a@example.com\","
+					+ "\"user_metadata\":{\"display_name\":\"A\"},\"created_at\":\"2025-01-01T00:00:00Z\"}");
+		});
+		supabase.createContext("/auth/v1/token", exchange -> respond(exchange,
+				"{\"access_token\":\"token\",\"refresh_token\":\"refresh\",\"user\":{\"id\":\"u\",\"email\":\"a@example.com\"}}"));
+		supabase.start();
+
+		sessionCache = new SessionCache(new ObjectMapper(), new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(sessionCache, "ttlSeconds", 60L);
+		ReflectionTestUtils.setField(sessionCache, "maxEntries", 50_000);
+		WebClient client = WebClient.builder()
+				.baseUrl("http://127.0.0.1:" + supabase.getAddress().getPort() + "/auth/v1")
+				.build();
+		authService = new SupabaseAuthService(client, sessionCache);
+	}
+
+	@AfterEach
+	void stopSupabase() {
+		supabase.stop(0);
+	}
+
+	@Test
+	void cachedSessionSkipsTheSupabaseRoundTrip() {
+		authService.getCurrentUser("warm-up");
+
+		long start = System.nanoTime();
+		for (int i = 0; i < REQUESTS; i++) {
+			sessionCache.invalidate("token");
+			authService.getCurrentUser("token");
+		}
+		long uncached = System.nanoTime() - start;
+
+		int callsBefore = userCalls.get();
+		start = System.nanoTime();
+		for (int i = 0; i < REQUESTS; i++) {
+			authService.getCurrentUser("token");
+		}
+		long cached = System.nanoTime() - start;
+
+		System.out.printf("/me, %d ms Supabase latency%n", SUPABASE_LATENCY_MS);
+		System.out.printf("  Supabase round trip: %,10.1f us/request%n", uncached / 1_000.0 / REQUESTS);
+		System.out.printf("  SessionCache hit:    %,10.1f us/request%n", cached / 1_000.0 / REQUESTS);
+
+		assertThat(userCalls.get()).isEqualTo(callsBefore);
+		assertThat(cached).isLessThan(uncached / 10);
+	}
+
+	@Test
+	void nonBlockingLoginsOverlapSupabaseLatency() {
+		authService.login("a@example.com", "secret").block();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < REQUESTS; i++) {
+			authService.login("a@example.com", "secret").block();
+		}
+		long blocking = (System.nanoTime() - start) / 1_000_000;
+
+		start = System.nanoTime();
+		List<SupabaseAuthService.LoginResult> results = Flux.range(0, REQUESTS)
+				.flatMap(i -> authService.login("a@example.com", "secret"))
+				.collectList()
+				.block();
+		long nonBlocking = (System.nanoTime() - start) / 1_000_000;
+
+		System.out.printf("%d logins, %d ms Supabase latency%n", REQUESTS, SUPABASE_LATENCY_MS);
+		System.out.printf("  one blocked thread each, in turn: %,6d ms%n", blocking);
+		System.out.printf("  in flight on the event loop:      %,6d ms%n", nonBlocking);
+
+		assertThat(results).hasSize(REQUESTS).allSatisfy(result -> assertThat(result.isSuccess()).isTrue());
+		assertThat(nonBlocking).isLessThan(blocking / 4);
+	}
+
+	private static void respond(HttpExchange exchange, String json) throws IOException {
+		exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+		try {
+			Thread.sleep(SUPABASE_LATENCY_MS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.techup.spring_demo.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.techup.spring_demo.repository.PhotoUploadRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SupabaseStorageServiceTest {
+
+	private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 13,
+			'I', 'H', 'D', 'R', 0, 0, 0x03, 0x20, 0, 0, 0x02, 0x58};
+	private static final String USER_ID = "6f1c2a9e-0d1b-4e55-9a57-2f1f5b8d4c3a";
+
+	private HttpServer storage;
+	private SupabaseStorageService service;
+
+	@BeforeEach
+	void startStorage() throws IOException {
+		storage = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		storage.setExecutor(Executors.newCachedThreadPool());
+		// A bucket that never answers in time
+		storage.createContext("/storage/v1/object/", exchange -> {
+			exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+			try {
+				Thread.sleep(5_000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.sendResponseHeaders(200, -1);
+			exchange.close();
+		});
+		// Ignores Range and always sends the whole object: a valid 800x600 PNG header padded to 1 MB
+		storage.createContext("/storage/v1/object/public/", exchange -> {
+			byte[] body = new byte[1024 * 1024];
+			System.arraycopy(PNG_HEADER, 0, body, 0, PNG_HEADER.length);
+			exchange.getResponseHeaders().set("Content-Type", "image/png");
+			if ("HEAD".equals(exchange.getRequestMethod())) {
+				exchange.getResponseHeaders().set("Content-Length", String.valueOf(body.length));
+				exchange.sendResponseHeaders(200, -1);
+			} else {
+				exchange.sendResponseHeaders(200, body.length);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				} catch (IOException e) {
+					// Client cancelled after the bytes it needed
+				}
+			}
+			exchange.close();
+		});
+		storage.start();
+
+		service = new SupabaseStorageService(mock(PhotoUploadRepository.class));
+		ReflectionTestUtils.setField(service, "supabaseUrl", "http://127.0.0.1:" + storage.getAddress().getPort());
+		ReflectionTestUtils.setField(service, "bucket", "trips");
+		ReflectionTestUtils.setField(service, "serviceRoleKey", "service-key");
+		ReflectionTestUtils.setField(service, "deleteConcurrency", 4);
+		ReflectionTestUtils.setField(service, "uploadTimeoutSeconds", 30L);
+		ReflectionTestUtils.setField(service, "maxImageDimension", 8000);
+		ReflectionTestUtils.setField(service, "maxImagePixels", 40_000_000L);
+	}
+
+	@AfterEach
+	void stopStorage() {
+		storage.stop(0);
+	}
+
+	@Test
+	void sniffReadsOnlyTheHeadWhenStorageIgnoresRange() {
+		String path = "direct/" + USER_ID + "/0b9f6c1e-2f3a-4d5b-8c7d-9e0f1a2b3c4d.png";
+
+		String url = service.completeDirectUpload(path, USER_ID);
+
+		assertThat(url).endsWith("/storage/v1/object/public/trips/" + path);
+	}
+
+	@Test
+	void deleteGivesUpWhenTheTimeoutPasses() {
+		String url = "http://127.0.0.1:" + storage.getAddress().getPort() + "/storage/v1/object/public/trips/a.jpg";
+
+		long start = System.nanoTime();
+		boolean deleted = service.deleteFiles(List.of(url), Duration.ofMillis(300));
+
+		assertThat(deleted).isFalse();
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(3));
+	}
+}
@@ -0,0 +1,112 @@
+package com.techup.spring_demo.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.techup.spring_demo.dto.FileUploadResult;
+import com.techup.spring_demo.repository.PhotoUploadRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Wall time of a multi-file upload against a stub storage endpoint that takes a fixed time per object,
+ * sequential (upload-concurrency 1) against the default 4 transfers in flight. Prints the comparison;
+ * the assertion allows generous slack, the stub latency dominates both runs.
+ */
+class SupabaseUploadBenchmarkTest {
+
+	private static final int FILES = 8;
+	private static final long STORAGE_LATENCY_MS = 150;
+
+	private HttpServer storage;
+	private final AtomicInteger uploads = new AtomicInteger();
+
+	@BeforeEach
+	void startStorage() throws IOException {
+		storage = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		storage.setExecutor(Executors.newCachedThreadPool());
+		storage.createContext("/storage/v1/object/", exchange -> {
+			exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+			try {
+				Thread.sleep(STORAGE_LATENCY_MS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			uploads.incrementAndGet();
+			exchange.sendResponseHeaders(200, -1);
+			exchange.close();
+		});
+		storage.start();
+	}
+
+	@AfterEach
+	void stopStorage() {
+		storage.stop(0);
+	}
+
+	@Test
+	void parallelUploadsOverlapStorageLatency() throws IOException {
+		List<MultipartFile> files = new ArrayList<>();
+		for (int i = 0; i < FILES; i++) {
+			files.add(new MockMultipartFile("files", "photo-" + i + ".png", "image/png", png(i)));
+		}
+
+		// Warm up the client and the stub before timing
+		service(4).uploadFiles(files.subList(0, 1), "token");
+
+		long sequential = time(service(1), files);
+		long parallel = time(service(4), files);
+
+		System.out.printf("%d uploads, %d ms storage latency each%n", FILES, STORAGE_LATENCY_MS);
+		System.out.printf("  upload-concurrency 1: %,6d ms%n", sequential);
+		System.out.printf("  upload-concurrency 4: %,6d ms%n", parallel);
+
+		assertThat(uploads.get()).isEqualTo(1 + 2 * FILES);
+		assertThat(sequential).isGreaterThanOrEqualTo(FILES * STORAGE_LATENCY_MS);
+		assertThat(parallel).isLessThan(sequential / 2);
+	}
+
+	private long time(SupabaseStorageService service, List<MultipartFile> files) {
+		long start = System.nanoTime();
+		List<FileUploadResult> results = service.uploadFiles(files, "token");
+		long millis = (System.nanoTime() - start) / 1_000_000;
+		assertThat(results).allSatisfy(result -> assertThat(result.getError()).isNull());
+		return millis;
+	}
+
+	// A fresh service each run so the known-objects cache never turns an upload into a HEAD
+	private SupabaseStorageService service(int concurrency) {
+		SupabaseStorageService service = new SupabaseStorageService(mock(PhotoUploadRepository.class));
+		ReflectionTestUtils.setField(service, "supabaseUrl", "http://127.0.0.1:" + storage.getAddress().getPort());
+		ReflectionTestUtils.setField(service, "bucket", "trips");
+		ReflectionTestUtils.setField(service, "uploadConcurrency", concurrency);
+		ReflectionTestUtils.setField(service, "uploadTimeoutSeconds", 30L);
+		ReflectionTestUtils.setField(service, "maxImageDimension", 8000);
+		ReflectionTestUtils.setField(service, "maxImagePixels", 40_000_000L);
+		return service;
+	}
+
+	private static byte[] png(int seed) throws IOException {
+		BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+		image.setRGB(seed % 64, 0, 0xFFFFFF);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+}
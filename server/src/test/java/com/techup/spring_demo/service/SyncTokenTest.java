@@ -0,0 +1,47 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SyncTokenTest {
+
+	@Test
+	void roundTripsAtMicrosecondPrecision() {
+		SyncToken token = new SyncToken(LocalDateTime.of(2025, 3, 9, 14, 30, 5, 123_456_000), 42);
+
+		assertThat(SyncToken.parse(token.encode())).isEqualTo(token);
+	}
+
+	@Test
+	void dropsNanosecondsPostgresDoesNotStore() {
+		SyncToken token = new SyncToken(LocalDateTime.of(2025, 3, 9, 14, 30, 5, 123_456_789), 7);
+
+		assertThat(SyncToken.parse(token.encode()).changedAt())
+				.isEqualTo(LocalDateTime.of(2025, 3, 9, 14, 30, 5, 123_456_000));
+	}
+
+	@Test
+	void roundTripsTimesBeforeTheEpoch() {
+		SyncToken token = new SyncToken(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000), 1);
+
+		assertThat(SyncToken.parse(token.encode())).isEqualTo(token);
+	}
+
+	@Test
+	void missingTokenStartsFromTheBeginning() {
+		assertThat(SyncToken.parse(null).isInitial()).isTrue();
+		assertThat(SyncToken.parse(" ")).isEqualTo(SyncToken.INITIAL);
+		assertThat(SyncToken.parse(SyncToken.INITIAL.encode()).isInitial()).isTrue();
+	}
+
+	@Test
+	void rejectsGarbage() {
+		assertThatThrownBy(() -> SyncToken.parse("not a token!")).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> SyncToken.parse("MTIz")).isInstanceOf(BadRequestException.class);
+	}
+}
@@ -0,0 +1,45 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TripFieldSelectionTest {
+
+	@Test
+	void absentMeansEveryField() {
+		assertThat(TripFieldSelection.parse(null)).isSameAs(TripFieldSelection.ALL);
+		assertThat(TripFieldSelection.parse(" ").isAll()).isTrue();
+		assertThat(TripFieldSelection.ALL.isProjectable()).isFalse();
+	}
+
+	@Test
+	void summaryIsTheProjectableCardView() {
+		TripFieldSelection summary = TripFieldSelection.parse("Summary");
+
+		assertThat(summary.fields()).containsExactlyInAnyOrder("id", "title", "photos", "tags", "province");
+		assertThat(summary.coverOnly()).isTrue();
+		assertThat(summary.isProjectable()).isTrue();
+	}
+
+	@Test
+	void listIsTrimmedAndProjectableWithoutEntityOnlyFields() {
+		TripFieldSelection selection = TripFieldSelection.parse(" id, title ,,viewCount");
+
+		assertThat(selection.fields()).containsExactlyInAnyOrder("id", "title", "viewCount");
+		assertThat(selection.coverOnly()).isFalse();
+		assertThat(selection.isProjectable()).isTrue();
+		assertThat(TripFieldSelection.parse("id,description").isProjectable()).isFalse();
+		assertThat(TripFieldSelection.parse("id,authorName").isProjectable()).isFalse();
+		assertThat(TripFieldSelection.parse("id,version").isProjectable()).isFalse();
+	}
+
+	@Test
+	void rejectsUnknownFields() {
+		assertThatThrownBy(() -> TripFieldSelection.parse("id,passwordHash"))
+				.isInstanceOf(BadRequestException.class)
+				.hasMessageContaining("passwordHash");
+	}
+}
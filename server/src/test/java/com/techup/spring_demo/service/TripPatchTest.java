@@ -0,0 +1,76 @@
+package com.techup.spring_demo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techup.spring_demo.entity.Trip;
+import com.techup.spring_demo.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TripPatchTest {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	@Test
+	void setsPresentMembersAndLeavesAbsentOnesAlone() throws Exception {
+		Trip trip = trip();
+
+		boolean changed = patch("{\"title\":\"Krabi\",\"tags\":[\"sea\"]}").applyTo(trip);
+
+		assertThat(changed).isTrue();
+		assertThat(trip.getTitle()).isEqualTo("Krabi");
+		assertThat(trip.getTags()).containsExactly("sea");
+		assertThat(trip.getDescription()).isEqualTo("Island hopping");
+		assertThat(trip.getPhotos()).containsExactly("a.jpg");
+	}
+
+	@Test
+	void nullClearsFieldsAndArrays() throws Exception {
+		Trip trip = trip();
+
+		patch("{\"description\":null,\"photos\":null,\"latitude\":null}").applyTo(trip);
+
+		assertThat(trip.getDescription()).isNull();
+		assertThat(trip.getPhotos()).isEmpty();
+		assertThat(trip.getLatitude()).isNull();
+	}
+
+	@Test
+	void unchangedValuesReportNoChange() throws Exception {
+		Trip trip = trip();
+
+		assertThat(patch("{\"title\":\"Phuket\",\"tags\":[\"beach\",\"food\"]}").applyTo(trip)).isFalse();
+		assertThat(patch("{}").applyTo(trip)).isFalse();
+	}
+
+	@Test
+	void rejectsInvalidDocuments() {
+		assertThatThrownBy(() -> patch("[]")).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> patch("{\"title\":\"  \"}")).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> patch("{\"title\":null}")).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> patch("{\"latitude\":\"north\"}")).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> patch("{\"tags\":[1]}")).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> patch("{\"viewCount\":5}")).isInstanceOf(BadRequestException.class);
+	}
+
+	private static TripPatch patch(String json) throws Exception {
+		JsonNode document = MAPPER.readTree(json);
+		return TripPatch.parse(document);
+	}
+
+	private static Trip trip() {
+		Trip trip = new Trip();
+		trip.setTitle("Phuket");
+		trip.setDescription("Island hopping");
+		trip.setPhotos(List.of("a.jpg"));
+		trip.setTags(List.of("beach", "food"));
+		trip.setLatitude(7.88);
+		trip.setLongitude(98.39);
+		trip.setProvince("Phuket");
+		return trip;
+	}
+}
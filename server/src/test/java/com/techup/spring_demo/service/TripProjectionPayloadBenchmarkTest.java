@@ -0,0 +1,44 @@
+package com.techup.spring_demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techup.spring_demo.dto.SampleTrips;
+import com.techup.spring_demo.dto.TripPageResponse;
+import com.techup.spring_demo.dto.TripResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Response size of a 20-trip list page: whole entities (no ?fields=) against ?fields=summary, which reads
+ * the column projection with only the cover photo and writes only the summary fields. Database read
+ * volume is not measured here, only what goes over the wire.
+ */
+class TripProjectionPayloadBenchmarkTest {
+
+	@Test
+	void summaryPageIsAFractionOfTheFullPage() throws Exception {
+		ObjectMapper mapper = SampleTrips.mapperBuilder().build();
+		TripPageResponse full = SampleTrips.page(20);
+		TripPageResponse summary = SampleTrips.page(20);
+		// What loadTripProjections returns for coverOnly: no description/author, photos[1:1]
+		for (TripResponse trip : summary.getContent()) {
+			trip.setDescription(null);
+			trip.setAuthorName(null);
+			trip.setVersion(null);
+			trip.setPhotos(List.of(trip.getPhotos().get(0)));
+		}
+		TripFieldSelection selection = TripFieldSelection.parse("summary");
+
+		byte[] fullJson = mapper.writeValueAsBytes(full);
+		byte[] summaryJson = mapper.writer(SampleTrips.onlyFields(selection.fields())).writeValueAsBytes(summary);
+
+		System.out.printf("20-trip page, JSON bytes (gzip):%n");
+		System.out.printf("  full entities    %,7d (%,6d)%n", fullJson.length, SampleTrips.gzip(fullJson).length);
+		System.out.printf("  fields=summary   %,7d (%,6d)%n", summaryJson.length, SampleTrips.gzip(summaryJson).length);
+
+		assertThat(summaryJson.length).isLessThan(fullJson.length / 3);
+		assertThat(SampleTrips.gzip(summaryJson).length).isLessThan(SampleTrips.gzip(fullJson).length);
+	}
+}
@@ -0,0 +1,71 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.exception.ApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TripStreamServiceTest {
+
+	private final TripStreamService service = new TripStreamService(new SimpleMeterRegistry());
+
+	TripStreamServiceTest() {
+		ReflectionTestUtils.setField(service, "maxSubscribers", 2);
+		ReflectionTestUtils.setField(service, "bufferSize", 16);
+		ReflectionTestUtils.setField(service, "heartbeatSeconds", 25L);
+	}
+
+	@Test
+	void concurrentSubscribesNeverExceedTheLimit() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger refused = new AtomicInteger();
+		try {
+			List<Future<Object>> attempts = new ArrayList<>();
+			for (int i = 0; i < 16; i++) {
+				attempts.add(executor.submit(() -> {
+					start.await();
+					try {
+						return service.subscribe(List.of(), List.of());
+					} catch (ApiException e) {
+						refused.incrementAndGet();
+						return null;
+					}
+				}));
+			}
+			start.countDown();
+			for (Future<Object> attempt : attempts) {
+				attempt.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(refused).hasValue(14);
+	}
+
+	@Test
+	void cancelledStreamFreesItsSlotOnce() {
+		Disposable first = service.subscribe(List.of(), List.of()).subscribe();
+		service.subscribe(List.of(), List.of());
+		assertThatThrownBy(() -> service.subscribe(List.of(), List.of())).isInstanceOf(ApiException.class);
+
+		first.dispose();
+		first.dispose();
+
+		service.subscribe(List.of(), List.of());
+		assertThatThrownBy(() -> service.subscribe(List.of(), List.of())).isInstanceOf(ApiException.class);
+	}
+}
@@ -0,0 +1,69 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.dto.TripSuggestionResponse;
+import com.techup.spring_demo.entity.TripEvent;
+import com.techup.spring_demo.event.TripChanged;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TripSuggestionServiceTest {
+
+	private final TripSuggestionService service = new TripSuggestionService(null);
+
+	@Test
+	void completesAnyTitleWordAndTags() {
+		change(TripEvent.Type.CREATED, 1L, "Trip to Chiang Mai", List.of("mountain", "Night Market"));
+
+		assertThat(suggest("chi").getTitles()).containsExactly("Trip to Chiang Mai");
+		assertThat(suggest("mai").getTitles()).containsExactly("Trip to Chiang Mai");
+		assertThat(suggest("chiang m").getTitles()).containsExactly("Trip to Chiang Mai");
+		assertThat(suggest("chiang x").getTitles()).isEmpty();
+		assertThat(suggest("night m").getTags()).containsExactly("Night Market");
+		assertThat(suggest("iang").getTitles()).isEmpty();
+	}
+
+	@Test
+	void ranksByNumberOfTripsAndLimits() {
+		change(TripEvent.Type.CREATED, 1L, "Beach day", List.of("beach"));
+		change(TripEvent.Type.CREATED, 2L, "Beach day", List.of("beach"));
+		change(TripEvent.Type.CREATED, 3L, "Bangkok food", List.of("bangkok"));
+
+		assertThat(suggest("b").getTitles()).containsExactly("Beach day", "Bangkok food");
+		assertThat(service.suggest("b", 1).getTags()).containsExactly("beach");
+	}
+
+	@Test
+	void updatesAndDeletesReplaceIndexedEntries() {
+		change(TripEvent.Type.CREATED, 1L, "Old title", List.of("old"));
+		change(TripEvent.Type.UPDATED, 1L, "New title", List.of("new"));
+
+		assertThat(suggest("old").getTitles()).isEmpty();
+		assertThat(suggest("old").getTags()).isEmpty();
+		assertThat(suggest("new").getTitles()).containsExactly("New title");
+
+		change(TripEvent.Type.DELETED, 1L, "New title", List.of("new"));
+
+		assertThat(suggest("new").getTitles()).isEmpty();
+		assertThat(suggest("title").getTitles()).isEmpty();
+	}
+
+	@Test
+	void longPrefixesAreMatchedPastTheIndexedDepth() {
+		change(TripEvent.Type.CREATED, 1L, "Supercalifragilisticexpialidocious tour", List.of());
+		change(TripEvent.Type.CREATED, 2L, "Supercalifragilistic other", List.of());
+
+		assertThat(suggest("supercalifragilisticexpi").getTitles())
+				.containsExactly("Supercalifragilisticexpialidocious tour");
+	}
+
+	private TripSuggestionResponse suggest(String prefix) {
+		return service.suggest(prefix, 10);
+	}
+
+	private void change(TripEvent.Type type, Long tripId, String title, List<String> tags) {
+		service.onTripChanged(new TripChanged(0, type, tripId, 1L, title, tags, null, null, 0, null, null));
+	}
+}
@@ -0,0 +1,64 @@
+package com.techup.spring_demo.service;
+
+import com.techup.spring_demo.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TripVersionMatchTest {
+
+	@Test
+	void missingHeaderIsUnconditional() {
+		assertThat(TripVersionMatch.parse(null)).isEqualTo(TripVersionMatch.ANY);
+		assertThat(TripVersionMatch.parse("  ")).isEqualTo(TripVersionMatch.ANY);
+	}
+
+	@Test
+	void wildcardMatchesAnyVersion() {
+		TripVersionMatch match = TripVersionMatch.parse(" * ");
+
+		assertThat(match.any()).isTrue();
+		assertThat(match.matches(42L)).isTrue();
+	}
+
+	@Test
+	void listMatchesAnyStrongTag() {
+		TripVersionMatch match = TripVersionMatch.parse("\"3\", \"5\",\"7\"");
+
+		assertThat(match.versions()).containsExactlyInAnyOrder(3L, 5L, 7L);
+		assertThat(match.matches(5L)).isTrue();
+		assertThat(match.matches(4L)).isFalse();
+	}
+
+	@Test
+	void weakAndForeignTagsNeverMatch() {
+		TripVersionMatch match = TripVersionMatch.parse("W/\"3\", \"abc\", \"a,b\", \"99999999999999999999\"");
+
+		assertThat(match.any()).isFalse();
+		assertThat(match.versions()).isEmpty();
+		assertThat(match.matches(3L)).isFalse();
+	}
+
+	@Test
+	void nonAsciiDigitsNeverMatch() {
+		// Arabic-Indic and fullwidth digits pass Character.isDigit and Long.parseLong alike
+		TripVersionMatch match = TripVersionMatch.parse("\"\u0663\", \"\uFF13\"");
+
+		assertThat(match.versions()).isEmpty();
+		assertThat(match.matches(3L)).isFalse();
+	}
+
+	@Test
+	void etagRoundTrips() {
+		assertThat(TripVersionMatch.parse(TripVersionMatch.etag(12L)).matches(12L)).isTrue();
+	}
+
+	@Test
+	void rejectsMalformedHeaders() {
+		assertThatThrownBy(() -> TripVersionMatch.parse("3")).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> TripVersionMatch.parse("\"3")).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> TripVersionMatch.parse("\"3\" \"4\"")).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> TripVersionMatch.parse(" , ")).isInstanceOf(BadRequestException.class);
+	}
+}